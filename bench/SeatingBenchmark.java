@@ -0,0 +1,222 @@
+/*Class Name: SeatingBenchmark
+ * @version: 1.0
+ * @description: Microbenchmarks for the hot paths of the seating assignment system. Every benchmark runs
+ * over the same seeded RosterGenerator rosters, for every roster size, partner count and table size, and
+ * prints one CSV line per case so results from different commits can be compared with a diff.
+ *
+ * Build and run from the project folder:
+ *   javac -d out/bench src/*.java bench/*.java
+ *   java -cp out/bench SeatingBenchmark [benchmark name...] [--full]
+ *
+ * Full assignTables runs are limited to 1,000 students unless --full is given.
+ * */
+
+//Imports
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class SeatingBenchmark {
+
+    private static final int[] ROSTER_SIZES = {100, 1000, 10000, 100000};
+    private static final int[] PARTNER_COUNTS = {1, 3, 7};
+    private static final int[] TABLE_SIZES = {8, 12};
+
+    private static final long SEED = 20200223L;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final int FULL_RUN_LIMIT = 1000;
+
+    //Results are folded into this so the JIT can't drop the measured work
+    private static volatile long sink;
+
+    private interface Operation {
+        long run(int ops);
+    }
+
+    public static void main (String[] args) {
+
+        List<String> names = new ArrayList<String>(Arrays.asList(args));
+        boolean full = names.remove("--full");
+
+        System.out.println("# java " + System.getProperty("java.version") + ", " + System.getProperty("java.vm.name")
+                + ", " + Runtime.getRuntime().availableProcessors() + " cpus");
+        System.out.println("benchmark,students,maxPartners,tableSize,opsPerIteration,nsPerOp");
+
+        for (int students : ROSTER_SIZES) {
+            for (int partners : PARTNER_COUNTS) {
+                for (int tableSize : TABLE_SIZES) {
+
+                    ArrayList<Student> roster = roster(students, partners);
+                    int maxTables = (students + tableSize - 1) / tableSize;
+                    SeatingState state = filledState(roster, maxTables, tableSize);
+
+                    if (selected(names, "happinessChange")) {
+                        report("happinessChange", students, partners, tableSize, 100000, happinessChange(state));
+                    }
+                    if (selected(names, "totalHappiness")) {
+                        report("totalHappiness", students, partners, tableSize, wholeRosterOps(students), totalHappiness(state));
+                    }
+                    if (selected(names, "deviationHappiness")) {
+                        report("deviationHappiness", students, partners, tableSize, wholeRosterOps(students), deviationHappiness(state));
+                    }
+                    if (selected(names, "containsStudent")) {
+                        report("containsStudent", students, partners, tableSize, 100000, containsStudent(roster, tableSize));
+                    }
+                    if (selected(names, "assignTables") && (full || students <= FULL_RUN_LIMIT)) {
+                        report("assignTables", students, partners, tableSize, 1, assignTables(roster, maxTables, tableSize));
+                    }
+                }
+            }
+        }
+    }
+
+    //Operations over the whole roster are repeated so every iteration covers about a million students
+    private static int wholeRosterOps(int students) {
+        return Math.max(1, 1000000 / students);
+    }
+
+    private static boolean selected(List<String> names, String name) {
+        return names.isEmpty() || names.contains(name);
+    }
+
+    /**
+     report()
+     This method warms up an operation, measures it and prints the median time per operation
+     @param //The benchmark case, the amount of operations per iteration and the operation
+     */
+    private static void report(String name, int students, int partners, int tableSize, int ops, Operation operation) {
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += operation.run(ops);
+        }
+
+        long[] times = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            sink += operation.run(ops);
+            times[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(times);
+        double nsPerOp = times[MEASURED_ITERATIONS / 2] / (double) ops;
+
+        System.out.println(name + "," + students + "," + partners + "," + tableSize + "," + ops + "," + String.format("%.1f", nsPerOp));
+    }
+
+    private static Operation happinessChange(SeatingState state) {
+
+        //Precompute random pairs of students at different tables
+        Random random = new Random(SEED);
+        int[] seated = state.getSeatedStudents();
+        int[] pairs = new int[2048];
+
+        for (int i = 0; i < pairs.length; i += 2) {
+            do {
+                pairs[i] = seated[random.nextInt(seated.length)];
+                pairs[i + 1] = seated[random.nextInt(seated.length)];
+            } while (state.getSeat(pairs[i]) == state.getSeat(pairs[i + 1]));
+        }
+
+        return ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                int p = (i & 1023) << 1;
+                sum += state.happinessChange(pairs[p], pairs[p + 1]);
+            }
+            return sum;
+        };
+    }
+
+    private static Operation totalHappiness(SeatingState state) {
+        return ops -> {
+            long sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += SeatingAssignmentSystem.totalHappiness(state, new ArrayList<Integer>());
+            }
+            return sum;
+        };
+    }
+
+    private static Operation deviationHappiness(SeatingState state) {
+
+        ArrayList<Integer> happiness = new ArrayList<Integer>();
+        double mean = SeatingAssignmentSystem.totalHappiness(state, happiness) / (double) state.getGraph().size();
+
+        return ops -> {
+            double sum = 0;
+            for (int i = 0; i < ops; i++) {
+                sum += SeatingAssignmentSystem.deviationHappiness(happiness, mean, state.getGraph().size());
+            }
+            return (long) sum;
+        };
+    }
+
+    private static Operation containsStudent(ArrayList<Student> roster, int tableSize) {
+
+        //One full table, looked up with equal copies of seated and not seated students
+        Table table = new Table(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            table.addStudent(roster.get(i));
+        }
+
+        Student[] lookups = new Student[2 * tableSize];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = new Student(roster.get(i).getName(), roster.get(i).getId());
+        }
+
+        return ops -> {
+            long found = 0;
+            for (int i = 0; i < ops; i++) {
+                if (table.containsStudent(lookups[i % lookups.length])) {
+                    found++;
+                }
+            }
+            return found;
+        };
+    }
+
+    private static Operation assignTables(ArrayList<Student> roster, int maxTables, int tableSize) {
+        return ops -> {
+            //The seating system reports to the console, which is not part of the measurement
+            PrintStream out = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            try {
+                long sum = 0;
+                for (int i = 0; i < ops; i++) {
+                    sum += SeatingAssignmentSystem.assignTables(roster, maxTables, tableSize, new RandomArrangement(), new HillClimbingStrategy(), 1, 1, SEED, null).size();
+                }
+                return sum;
+            } finally {
+                System.setOut(out);
+            }
+        };
+    }
+
+    /**
+     roster()
+     This method builds a seeded roster with friend groups, choosing up to the given amount of partners
+     @param //Amount of students and most partners per student
+     @return ArrayList<Student> the roster
+     */
+    private static ArrayList<Student> roster(int students, int partners) {
+        RosterGenerator generator = new RosterGenerator(SEED);
+        generator.setMaxPartners(partners);
+        return generator.generate(students);
+    }
+
+    private static SeatingState filledState(ArrayList<Student> roster, int maxTables, int tableSize) {
+
+        SeatingState state = new SeatingState(PartnerGraph.compile(roster), maxTables, tableSize);
+        int s = 0;
+        for (int t = 0; t < maxTables; t++) {
+            while (!state.isFull(t) && s < roster.size()) {
+                state.seatStudent(s++, t);
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * AnytimeSeating.java
+ * Version 1
+ * This class runs the seating system in the background until a deadline, and hands out the best arrangement found
+ * so far whenever it is asked. The run stops by itself at the deadline, or earlier when every restart has reached
+ * its plateau or the happiness bound, and can be cancelled at any time; either way the best arrangement is kept.
+ * While the run searches, the best arrangement is the last one the seating progress reported, which is at most a
+ * quarter of a second behind the search.
+ */
+
+//Imports
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class AnytimeSeating implements SeatingListener {
+
+    private final SeatingProgress progress;
+    private final CompletableFuture<ArrayList<Table>> result = new CompletableFuture<ArrayList<Table>>();
+
+    //Best arrangement reported while the run searches
+    private ArrayList<Table> best;
+    private int bestHappiness = Integer.MIN_VALUE;
+
+    private AnytimeSeating() {
+        this.progress = new SeatingProgress(this);
+    }
+
+    /**
+     * start
+     * This method starts seating the students on a background thread
+     * @param //An arraylist of students representing the students that signed up, 2 integers representing
+     * the maximum amount of tables and the table capacity, the SeatingConstraints of the tables, the InitialArrangement every restart starts from, the
+     * SeatingStrategy every restart uses, 2 integers representing the amount of worker threads and the amount of
+     * restarts, a long representing the seed, a long representing the System.nanoTime() at which the run must
+     * stop, and an integer representing the sweeps without improvement after which a restart stops (0 for no plateau)
+     * @return The AnytimeSeating of the run
+     */
+    static AnytimeSeating start(ArrayList<Student> students, int maxTables, int tableSize, SeatingConstraints constraints, InitialArrangement start, SeatingStrategy strategy, int workers, int restarts, long seed, long deadline, int plateauSweeps) {
+        return start(students, maxTables, tableSize, PartnerGraph.UNWEIGHTED, constraints, start, strategy, workers, restarts, seed, deadline, plateauSweeps);
+    }
+
+    /**
+     * start
+     * This method starts seating the students like start above, weighting every partner by their rank
+     * @param //The arguments of start above, with an array of integers representing the weight of Partner 1,
+     * Partner 2, ... after the table capacity
+     * @return The AnytimeSeating of the run
+     */
+    static AnytimeSeating start(ArrayList<Student> students, int maxTables, int tableSize, int[] rankWeights, SeatingConstraints constraints, InitialArrangement start, SeatingStrategy strategy, int workers, int restarts, long seed, long deadline, int plateauSweeps) {
+
+        AnytimeSeating run = new AnytimeSeating();
+
+        Thread thread = new Thread(() -> {
+            try {
+                run.result.complete(SeatingAssignmentSystem.assignTables(students, maxTables, tableSize, rankWeights, constraints, start, strategy, workers, restarts, seed, deadline, plateauSweeps, run.progress));
+            } catch (RuntimeException | Error e) {
+                run.result.completeExceptionally(e);
+            }
+        }, "Anytime seating");
+        thread.setDaemon(true);
+        thread.start();
+
+        return run;
+    }
+
+    @Override
+    public synchronized void improved(ArrayList<Table> arrangement, int totalHappiness) {
+        if (totalHappiness > bestHappiness) {
+            best = arrangement;
+            bestHappiness = totalHappiness;
+        }
+    }
+
+    /**
+     * getBest
+     * This method gets the best arrangement found so far, or the final arrangement once the run is done
+     * @return An arraylist of tables representing the arrangement, or null if the run hasn't filled the tables yet
+     */
+    ArrayList<Table> getBest() {
+        if (result.isDone() && !result.isCompletedExceptionally()) {
+            return result.join();
+        }
+        synchronized (this) {
+            return best;
+        }
+    }
+
+    /**
+     * getBestHappiness
+     * This method gets the total happiness of the best arrangement reported while the run searched
+     * @return An integer representing the total happiness, Integer.MIN_VALUE if none was reported yet
+     */
+    synchronized int getBestHappiness() {
+        return bestHappiness;
+    }
+
+    /**
+     * cancel
+     * This method asks the run to stop as soon as possible; the best arrangement is still returned by await
+     */
+    void cancel() {
+        progress.cancel();
+    }
+
+    boolean isDone() {
+        return result.isDone();
+    }
+
+    /**
+     * await
+     * This method waits until the run stops, which is at the latest shortly after its deadline
+     * @return An arraylist of tables representing the final arrangement
+     */
+    ArrayList<Table> await() {
+        return result.join();
+    }
+
+    /**
+     * await
+     * This method waits until the run stops, or until the given time has passed
+     * @param //A long representing the longest time to wait, and its TimeUnit
+     * @return An arraylist of tables representing the final arrangement, or the best so far if the time passed first
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    ArrayList<Table> await(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            return result.get(timeout, unit);
+        } catch (TimeoutException e) {
+            return getBest();
+        } catch (ExecutionException e) {
+            return result.join();
+        }
+    }
+}
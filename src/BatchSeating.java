@@ -0,0 +1,329 @@
+/*Class Name: BatchSeating
+ * @version: 1.0
+ * @description: Runs the seating assignment system without a display. Reads a roster file, seats the
+ * students and writes the arrangement and happiness statistics to a file.
+ * A roster or output file ending in .snapshot is read or written as a binary SeatingSnapshot instead.
+ * Step-free tables are given as table numbers separated by commas (for example 1,2,7), or "all".
+ * The exclusions file lists pairs of students who must not share a table, in the format RosterFile reads.
+ * Rank weights are the weights of Partner 1, Partner 2, ... separated by commas (for example 3,2,1); every
+ * partner weighs 1 when they are left out. Every option is named and may be given in any order.
+ *
+ * Usage: java BatchSeating <roster file> <max tables> <table size> <output file> [--strategy=hill|annealing|tabu] [--workers=N] [--restarts=N] [--start=random|cluster] [--seed=N] [--time=seconds] [--plateau=sweeps] [--step-free=1,2,7|all] [--diet-cap=N] [--exclusions=file] [--weights=3,2,1]
+ * */
+
+//Imports
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+public class BatchSeating {
+
+    //Names of the options, each given as --name=value after the 4 required arguments
+    private static final String[] OPTIONS = {"strategy", "workers", "restarts", "start", "seed", "time", "plateau",
+            "step-free", "diet-cap", "exclusions", "weights"};
+
+    public static void main (String[] args) {
+
+        if (args.length < 4) {
+            usage(null);
+            return;
+        }
+
+        Path rosterFile = Paths.get(args[0]);
+        Path outputFile = Paths.get(args[3]);
+        int maxTables;
+        int tableSize;
+        int workers;
+        int restarts;
+        SeatingStrategy strategy;
+        InitialArrangement start;
+        long seed;
+        double timeLimit;
+        int plateauSweeps;
+        SeatingConstraints constraints;
+        String exclusionsFile;
+        int[] rankWeights;
+
+        try {
+            HashMap<String, String> options = options(args);
+
+            maxTables = positive("max tables", args[1]);
+            tableSize = positive("table size", args[2]);
+            strategy = strategy(options.getOrDefault("strategy", "hill"));
+            start = start(options.getOrDefault("start", "random"));
+            workers = options.containsKey("workers") ? positive("--workers", options.get("workers")) : 1;
+            restarts = options.containsKey("restarts") ? positive("--restarts", options.get("restarts")) : workers;
+            seed = options.containsKey("seed") ? parseLong("--seed", options.get("seed")) : SeatingAssignmentSystem.newSeed();
+            timeLimit = options.containsKey("time") ? parseDouble("--time", options.get("time")) : SeatingAssignmentSystem.TIME_LIMIT;
+            if (timeLimit <= 0) {
+                throw new IllegalArgumentException("--time must be positive, got " + options.get("time"));
+            }
+            plateauSweeps = options.containsKey("plateau") ? parseInt("--plateau", options.get("plateau")) : 0;
+            if (plateauSweeps < 0) {
+                throw new IllegalArgumentException("--plateau can't be negative, got " + plateauSweeps);
+            }
+            constraints = constraints(options.getOrDefault("step-free", "all"), options.containsKey("diet-cap") ? parseInt("--diet-cap", options.get("diet-cap")) : 0, maxTables);
+            exclusionsFile = options.get("exclusions");
+            rankWeights = options.containsKey("weights") ? rankWeights(options.get("weights")) : PartnerGraph.UNWEIGHTED;
+        } catch (IllegalArgumentException e) {
+            usage(e.getMessage());
+            return;
+        }
+
+        try {
+            ArrayList<Student> students;
+            if (isSnapshot(rosterFile)) {
+                students = SeatingSnapshot.read(rosterFile).getStudents();
+            } else {
+                students = RosterFile.read(rosterFile);
+            }
+            if (exclusionsFile != null) {
+                RosterFile.readExclusions(Paths.get(exclusionsFile), students);
+            }
+
+            long startTime = System.nanoTime();
+            long deadline = startTime + (long) (timeLimit * 1000000000.0);
+            ArrayList<Table> tables = SeatingAssignmentSystem.assignTables(students, maxTables, tableSize, rankWeights, constraints, start, strategy, workers, restarts, seed, deadline, plateauSweeps, null);
+            double elapsed = (System.nanoTime() - startTime) / 1000000000.0;
+
+            if (isSnapshot(outputFile)) {
+                SeatingSnapshot.write(outputFile, students, tables);
+            } else {
+                write(outputFile, students, tables, tableSize, rankWeights, seed, elapsed);
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     options()
+     This method reads the --name=value options after the 4 required arguments
+     @param //String[], the command line
+     @return HashMap<String, String>, the value of every option given, by name
+     */
+    private static HashMap<String, String> options(String[] args) {
+        HashMap<String, String> options = new HashMap<String, String>();
+        for (int i = 4; i < args.length; i++) {
+            int equals = args[i].indexOf('=');
+            String name = equals > 2 && args[i].startsWith("--") ? args[i].substring(2, equals) : null;
+            if (name == null || !Arrays.asList(OPTIONS).contains(name)) {
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+            if (options.put(name, args[i].substring(equals + 1).trim()) != null) {
+                throw new IllegalArgumentException("--" + name + " is given twice");
+            }
+        }
+        return options;
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number, got " + value);
+        }
+    }
+
+    private static int positive(String name, String value) {
+        int number = parseInt(name, value);
+        if (number <= 0) {
+            throw new IllegalArgumentException(name + " must be positive, got " + value);
+        }
+        return number;
+    }
+
+    private static long parseLong(String name, String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number, got " + value);
+        }
+    }
+
+    private static double parseDouble(String name, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number, got " + value);
+        }
+    }
+
+    private static boolean isSnapshot(Path file) {
+        return file.getFileName().toString().endsWith(".snapshot");
+    }
+
+    /**
+     strategy()
+     This method picks a seating strategy by name
+     @param //String, the name given on the command line
+     @return SeatingStrategy, the matching engine
+     */
+    private static SeatingStrategy strategy(String name) {
+        if (name.equals("hill")) {
+            return new HillClimbingStrategy();
+        } else if (name.equals("annealing")) {
+            return new SimulatedAnnealingStrategy();
+        } else if (name.equals("tabu")) {
+            return new TabuSearchStrategy();
+        }
+        throw new IllegalArgumentException("Unknown --strategy " + name);
+    }
+
+    /**
+     start()
+     This method picks a starting arrangement by name
+     @param //String, the name given on the command line
+     @return InitialArrangement, the matching way to fill the tables
+     */
+    private static InitialArrangement start(String name) {
+        if (name.equals("random")) {
+            return new RandomArrangement();
+        } else if (name.equals("cluster")) {
+            return new ClusterArrangement();
+        }
+        throw new IllegalArgumentException("Unknown --start " + name);
+    }
+
+    /**
+     constraints()
+     This method builds the accommodation constraints of the tables
+     @param //String, the step-free table numbers separated by commas or "all", int, the special diet cap (0 for none), and int, the amount of tables
+     @return SeatingConstraints, the constraints of the run
+     */
+    private static SeatingConstraints constraints(String stepFree, int dietCap, int maxTables) {
+        SeatingConstraints constraints = new SeatingConstraints();
+        if (!stepFree.trim().equalsIgnoreCase("all")) {
+            for (String table : stepFree.split(",")) {
+                int number = parseInt("--step-free", table);
+                if (number < 1 || number > maxTables) {
+                    throw new IllegalArgumentException("--step-free table " + table.trim() + " is not between 1 and " + maxTables);
+                }
+                constraints.setStepFree(number - 1);
+            }
+        }
+        if (dietCap < 0) {
+            throw new IllegalArgumentException("--diet-cap can't be negative, got " + dietCap);
+        }
+        constraints.setDietCap(dietCap);
+        return constraints;
+    }
+
+    /**
+     rankWeights()
+     This method reads the weights of the partner ranks
+     @param //String, the weights of Partner 1, Partner 2, ... separated by commas
+     @return int[], the weight of each rank
+     */
+    private static int[] rankWeights(String weights) {
+        String[] fields = weights.split(",");
+        int[] rankWeights = new int[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            rankWeights[i] = parseInt("--weights", fields[i]);
+            if (rankWeights[i] < 0) {
+                throw new IllegalArgumentException("--weights can't be negative, got " + fields[i].trim());
+            }
+        }
+        return rankWeights;
+    }
+
+    /**
+     write()
+     This method writes the arrangement and its happiness statistics
+     @param //Path of the output file, the roster, the arrangement, the table capacity, the rank weights, the seed of the run, and the seconds the seating took
+     */
+    private static void write(Path file, ArrayList<Student> students, ArrayList<Table> tables, int tableSize, int[] rankWeights, long seed, double elapsed) throws IOException {
+
+        //Find each student's table through the compiled roster
+        PartnerGraph graph = PartnerGraph.compile(students, rankWeights);
+        int[] seat = new int[graph.size()];
+        Arrays.fill(seat, -1);
+
+        for (int t = 0; t < tables.size(); t++) {
+            for (Student s : tables.get(t).getStudents()) {
+                seat[graph.indexOf(s)] = t;
+            }
+        }
+
+        //Each seated student's happiness is the summed weight of their partners at their table
+        int seated = 0;
+        int totalHappiness = 0;
+        int[] happiness = new int[graph.size()];
+
+        for (int s = 0; s < graph.size(); s++) {
+            if (seat[s] >= 0) {
+                seated++;
+                for (int i = graph.partnerStart(s); i < graph.partnerEnd(s); i++) {
+                    if (seat[graph.partner(i)] == seat[s]) {
+                        happiness[s] += graph.partnerWeight(i);
+                    }
+                }
+                totalHappiness += happiness[s];
+            }
+        }
+
+        double meanHappiness = ((double) totalHappiness) / students.size();
+        double sum = 0;
+        for (int s = 0; s < graph.size(); s++) {
+            if (seat[s] >= 0) {
+                sum += Math.pow(happiness[s] - meanHappiness, 2);
+            }
+        }
+        double deviationHappiness = Math.sqrt(sum / (students.size() - 1));
+        int bound = graph.happinessBound(tables.size(), tableSize);
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+
+            out.println("Students: " + students.size());
+            out.println("Seated: " + seated);
+            out.println("Tables: " + tables.size());
+            out.println("Seed: " + seed);
+            out.println("Time elapsed: " + elapsed + "s");
+            out.println("Total Happiness: " + totalHappiness);
+            out.println("Mean Happiness: " + meanHappiness);
+            out.println("Standard Deviation of Happiness: " + deviationHappiness);
+            out.println("Happiness Bound: " + bound);
+            out.println("Gap to Bound: " + (bound - totalHappiness) + " (" + SeatingAssignmentSystem.gapPercent(totalHappiness, bound) + "%)");
+            out.println();
+
+            for (int t = 0; t < tables.size(); t++) {
+                out.print("Table " + (t + 1) + ":");
+                for (Student s : tables.get(t).getStudents()) {
+                    out.print(" " + s.getName() + " (#" + s.getId() + ", " + happiness[graph.indexOf(s)] + ");");
+                }
+                out.println();
+            }
+
+            if (seated < students.size()) {
+                out.println();
+                out.print("Not seated:");
+                for (int s = 0; s < graph.size(); s++) {
+                    if (seat[s] < 0) {
+                        out.print(" " + graph.getStudent(s).getName() + " (#" + graph.getStudent(s).getId() + ");");
+                    }
+                }
+                out.println();
+            }
+        }
+    }
+
+    /**
+     usage()
+     This method prints what was wrong with the command line, if known, and how to use it, then exits
+     @param //String, the problem with the command line, or null
+     */
+    private static void usage(String problem) {
+        if (problem != null) {
+            System.err.println(problem);
+        }
+        System.err.println("Usage: java BatchSeating <roster file> <max tables> <table size> <output file> [--strategy=hill|annealing|tabu] [--workers=N] [--restarts=N] [--start=random|cluster] [--seed=N] [--time=seconds] [--plateau=sweeps] [--step-free=1,2,7|all] [--diet-cap=N] [--exclusions=file] [--weights=3,2,1]");
+        System.exit(2);
+    }
+}
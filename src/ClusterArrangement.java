@@ -0,0 +1,118 @@
+/**
+ * ClusterArrangement.java
+ * Version 1
+ * This class builds a starting arrangement from the partner graph instead of at random. Each table is started
+ * with the unseated student who has the most partner links, and then grown one seat at a time with the unseated
+ * student who has the most links to the students already at the table. A mutual pair counts twice, so pairs who
+ * chose each other are seated together first, followed by the rest of their friend group. When nobody left has a
+ * link to the table, the next best connected student starts a new group at it.
+ * Ties are broken at random, so every restart grows a different arrangement. Students with accommodations are
+ * seated first, at tables that serve them, and the groups grow around them.
+ */
+
+//Imports
+import java.util.SplittableRandom;
+
+class ClusterArrangement implements InitialArrangement {
+
+    @Override
+    public void fill(SeatingState state, SplittableRandom random) {
+
+        PartnerGraph graph = state.getGraph();
+        int n = graph.size();
+
+        //Students by degree (partners plus choosers), highest first, in random order within a degree
+        int maxDegree = 0;
+        int[] degree = new int[n];
+        for (int s = 0; s < n; s++) {
+            degree[s] = graph.partnerEnd(s) - graph.partnerStart(s) + graph.chooserEnd(s) - graph.chooserStart(s);
+            maxDegree = Math.max(maxDegree, degree[s]);
+        }
+
+        int[] shuffled = new int[n];
+        for (int i = 0; i < n; i++) {
+            int j = random.nextInt(i + 1);
+            shuffled[i] = shuffled[j];
+            shuffled[j] = i;
+        }
+
+        //Counting sort by degree keeps the shuffled order within each degree
+        int[] bucketStart = new int[maxDegree + 2];
+        for (int s = 0; s < n; s++) {
+            bucketStart[maxDegree - degree[s] + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            bucketStart[d + 1] += bucketStart[d];
+        }
+        int[] seeds = new int[n];
+        for (int s : shuffled) {
+            seeds[bucketStart[maxDegree - degree[s]]++] = s;
+        }
+
+        state.seatAccommodated(shuffled);
+
+        int nextSeed = 0;
+        int[] visited = new int[n];
+        int stamp = 0;
+
+        for (int t = 0; t < state.getNumTables(); t++) {
+
+            while (!state.isFull(t)) {
+
+                //Find the unseated neighbour of the table with the most links to it
+                int best = -1;
+                int bestLinks = 0;
+                int ties = 0;
+                stamp++;
+
+                for (int i = 0; i < state.getTableCount(t); i++) {
+
+                    int member = state.getStudentAt(t, i);
+
+                    for (int j = graph.partnerStart(member); j < graph.partnerEnd(member); j++) {
+                        int candidate = graph.partner(j);
+                        if (state.getSeat(candidate) < 0 && visited[candidate] != stamp && state.canSeat(candidate, t)) {
+                            visited[candidate] = stamp;
+                            int links = state.links(candidate, t);
+                            if (links > bestLinks) {
+                                best = candidate;
+                                bestLinks = links;
+                                ties = 1;
+                            } else if (links == bestLinks && random.nextInt(++ties) == 0) {
+                                best = candidate;
+                            }
+                        }
+                    }
+                    for (int j = graph.chooserStart(member); j < graph.chooserEnd(member); j++) {
+                        int candidate = graph.chooser(j);
+                        if (state.getSeat(candidate) < 0 && visited[candidate] != stamp && state.canSeat(candidate, t)) {
+                            visited[candidate] = stamp;
+                            int links = state.links(candidate, t);
+                            if (links > bestLinks) {
+                                best = candidate;
+                                bestLinks = links;
+                                ties = 1;
+                            } else if (links == bestLinks && random.nextInt(++ties) == 0) {
+                                best = candidate;
+                            }
+                        }
+                    }
+                }
+
+                //Nobody unseated is linked to the table, so start a new group with the best connected student left
+                if (best < 0) {
+                    //Students left over with accommodations can't be served at any table with a free seat
+                    while (nextSeed < n && (state.getSeat(seeds[nextSeed]) >= 0 || !state.canSeat(seeds[nextSeed], t))) {
+                        nextSeed++;
+                    }
+                    if (nextSeed == n) {
+                        return;
+                    }
+                    best = seeds[nextSeed];
+                }
+
+                state.seatStudent(best, t);
+            }
+        }
+    }
+}
@@ -4,10 +4,12 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.MouseInfo;
 import java.awt.Point;
+import java.awt.image.BufferedImage;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.ComponentAdapter;
@@ -18,6 +20,8 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import javax.swing.Box;
 import javax.swing.BoxLayout;
@@ -28,6 +32,7 @@ import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTree;
 import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
 import javax.swing.text.NumberFormatter;
 import javax.swing.tree.DefaultMutableTreeNode;
 
@@ -78,10 +83,26 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
     private int maxStudents;
     private int numRows;
 
+    //Accommodation settings: the first stepFreeTables tables are step-free (0 makes every table step-free), and
+    //no table gets more than dietCap special diets (0 for no cap)
+    private int stepFreeTables;
+    private int dietCap;
+
     private int [] rowLengths;
 
     private ArrayList <Table> tables;
 
+    //Table settings of the current arrangement, and whether it is the final arrangement of a seating run that was
+    //not stopped, so new sign-ups can be added to it instead of solving again
+    private int seatedTables;
+    private int seatedTableSize;
+    private int seatedStepFreeTables;
+    private int seatedDietCap;
+    private boolean seatedFinal;
+
+    //The seating run currently working in the background, if any
+    private solverWorker solver;
+
     /**
      * The constructor for the floor plan system. Creates all components contained within the system,
      * and initializes all variables to their default values.
@@ -154,8 +175,18 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
      */
     private class displayPanel extends JPanel implements MouseListener {
 
+        private final Color selectedColor = new Color(1f, 0.4f, 0.5f);
+
+        //Index of the table positions, rebuilt whenever the layout changes
+        private TableGrid grid;
+
+        //Off-screen layer with every table drawn in white, rebuilt only when seating or layout changes
+        private BufferedImage tablesLayer;
+        private boolean tablesLayerDirty;
+
         private displayPanel () {
             this.setBackground(Color.DARK_GRAY);
+            this.setDoubleBuffered(true);
             addMouseListener(this);
 
             this.addComponentListener(new ComponentAdapter() {
@@ -169,7 +200,6 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
         @Override
         public void paintComponent (Graphics g) {
             super.paintComponent(g);
-            setDoubleBuffered(true);
 
             if (currentlyVisible) {
                 currentlyVisible = false;
@@ -177,48 +207,123 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
 
             }
 
+            if (tablesLayerDirty || tablesLayer == null || tablesLayer.getWidth() != getWidth() || tablesLayer.getHeight() != getHeight()) {
+                drawTablesLayer();
+            }
+
+            if (tablesLayer != null) {
+                g.drawImage(tablesLayer, 0, 0, null);
+            }
+
+            if (selected != null) {
+                selected.draw(g, selectedColor);
+            }
+        }
+
+        /**
+         * Redraws the off-screen layer holding every table and seat.
+         */
+        private void drawTablesLayer () {
+            tablesLayerDirty = false;
+
+            SeatingEvents.Draw event = new SeatingEvents.Draw();
+            event.begin();
+
+            if (getWidth() <= 0 || getHeight() <= 0) {
+                tablesLayer = null;
+                return;
+            }
+
+            tablesLayer = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = tablesLayer.createGraphics();
+            g.setFont(getFont());
+
             for (int i = 0; i < tables.size(); i++) {
                 tables.get(i).draw(g, Color.WHITE);
-                if (selected != null) {
-                    if (i == tables.indexOf(selected)) {
-                        tables.get(i).draw(g, new Color(1f, 0.4f, 0.5f));
-                    }
-                }
             }
 
+            g.dispose();
+
+            if (event.shouldCommit()) {
+                event.tables = tables.size();
+                event.commit();
+            }
+        }
+
+        /**
+         * Marks the tables layer as out of date after the seating or layout changed, and repaints the panel.
+         */
+        private void tablesChanged () {
+            tablesLayerDirty = true;
             repaint();
         }
 
-        private void recalculate () {
-            tables = SeatingAssignmentSystem.assignTables(students, maxTables, maxStudents);
+        /**
+         * Repaints only the area of one table, used when the selection moves.
+         *
+         * @param t the table to repaint, or <code>null</code> for none
+         */
+        private void repaintTable (Table t) {
+            if (t != null) {
+                repaint(t.getBounds(getFontMetrics(getFont())));
+            }
+        }
 
-            int r = 0;
+        /**
+         * Starts seating the students in the background, stopping the run that is still going, if any.
+         * Better arrangements are drawn as soon as they are found. If the table settings did not change,
+         * new sign-ups are added to the current arrangement instead of solving again. A run that is still
+         * going with the same table settings and sign-ups is left to finish.
+         */
+        private void recalculate () {
+            if (solver != null) {
+                if (!solver.isDone() && solver.seats(students, maxTables, maxStudents, stepFreeTables, dietCap)) {
+                    return;
+                }
+                solver.stop();
+            }
 
-            int a = (int) ((this.getWidth() / rowLengths[0] * 0.9) / 2);
-            int b = (int) ((this.getHeight() / numRows * 0.9) / 2);
+            //Only a finished arrangement is kept; one a stopped run left behind is only partly optimized
+            boolean insert = seatedFinal && maxTables == seatedTables && maxStudents == seatedTableSize
+                    && stepFreeTables == seatedStepFreeTables && dietCap == seatedDietCap;
+            solver = new solverWorker(new ArrayList <Student> (students), tables, maxTables, maxStudents, stepFreeTables, dietCap, insert);
+            solver.execute();
+        }
 
-            if (a < b) {
-                r = a;
+        /**
+         * Shows a new arrangement from the seating run, keeping the same table number selected.
+         *
+         * @param arrangement the new tables
+         * @param numTables the max number of tables the arrangement was made for
+         * @param tableSize the max number of students per table the arrangement was made for
+         * @param stepFree the number of step-free tables the arrangement was made for
+         * @param diets the special diet cap the arrangement was made for
+         * @param finished whether the arrangement is the final one of its seating run
+         */
+        private void showTables (ArrayList <Table> arrangement, int numTables, int tableSize, int stepFree, int diets, boolean finished) {
+            int selectedIndex = tables.indexOf(selected);
+
+            tables = arrangement;
+            seatedTables = numTables;
+            seatedTableSize = tableSize;
+            seatedStepFreeTables = stepFree;
+            seatedDietCap = diets;
+            seatedFinal = finished;
+
+            if (selectedIndex >= 0 && selectedIndex < tables.size()) {
+                selected = tables.get(selectedIndex);
             } else {
-                r = b;
-            }
-
-            int offsetY = (int) (this.getHeight() / (numRows * 2.0));
-            int tableNum = 0;
-            for (int i = 0; i < numRows; i++) {
-                int offsetX = (int) (this.getWidth() / (rowLengths[i] * 2.0));
-                for (int j = 0; j < rowLengths[i]; j++) {
-                    tables.get(tableNum).setX(offsetX * (j * 2 + 1));
-                    tables.get(tableNum).setY(offsetY * (i * 2 + 1));
-                    tables.get(tableNum).setRadius(r);
-                    tableNum++;
-                }
+                selected = null;
             }
 
-            this.revalidate();
+            recalculate(0);
+            side.profile.setTree();
         }
 
         private void recalculate (int w) {
+            SeatingEvents.Recalculate event = new SeatingEvents.Recalculate();
+            event.begin();
+
             int r = 0;
 
             int a = (int) ((this.getWidth() / rowLengths[0] * 0.9) / 2);
@@ -234,7 +339,7 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
             int tableNum = 0;
             for (int i = 0; i < numRows; i++) {
                 int offsetX = (int) (this.getWidth() / (rowLengths[i] * 2.0));
-                for (int j = 0; j < rowLengths[i]; j++) {
+                for (int j = 0; j < rowLengths[i] && tableNum < tables.size(); j++) {
                     tables.get(tableNum).setX(offsetX * (j * 2 + 1));
                     tables.get(tableNum).setY(offsetY * (i * 2 + 1));
                     tables.get(tableNum).setRadius(r);
@@ -242,7 +347,17 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
                 }
             }
 
+            grid = new TableGrid(tables, this.getWidth(), this.getHeight());
+
             this.revalidate();
+            tablesChanged();
+
+            if (event.shouldCommit()) {
+                event.tables = tables.size();
+                event.width = this.getWidth();
+                event.height = this.getHeight();
+                event.commit();
+            }
         }
 
         @Override
@@ -256,19 +371,17 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
             int x = p.x - l.x;
             int y = p.y - l.y;
 
-            // Sorry Mr. G
-            check: {
-                for (int i = 0; i < tables.size(); i++) {
-                    Table t = tables.get(i);
-                    if (t.getX() != 0 && t.getY() != 0) {
-                        if (Utility.pointInCircle(t.getX(), t.getY(), t.getRadius(), x, y)) {
-                            selected = tables.get(i);
-                            break check;
-                        } else {
-                            selected = null;
-                        }
-                    }
-                }
+            Table previous = selected;
+
+            if (grid != null) {
+                selected = grid.tableAt(x, y);
+            } else {
+                selected = null;
+            }
+
+            if (selected != previous) {
+                repaintTable(previous);
+                repaintTable(selected);
             }
             side.profile.setTree();
         }
@@ -286,6 +399,86 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
         public void mouseExited(MouseEvent e) {
         }
     }
+
+    /**
+     * Seats the students on a background thread, so the floor plan stays responsive while the seating system
+     * searches. Improved arrangements are published to the display as they are found. A worker that has been
+     * stopped never touches the display again.
+     */
+    private class solverWorker extends SwingWorker <ArrayList <Table>, ArrayList <Table>> implements SeatingListener {
+
+        private ArrayList <Student> roster;
+        private ArrayList <Table> current;
+        private int numTables;
+        private int tableSize;
+        private int stepFree;
+        private int diets;
+        private boolean insert;
+        private SeatingProgress progress;
+
+        private solverWorker (ArrayList <Student> roster, ArrayList <Table> current, int numTables, int tableSize, int stepFree, int diets, boolean insert) {
+            this.roster = roster;
+            this.current = current;
+            this.numTables = numTables;
+            this.tableSize = tableSize;
+            this.stepFree = stepFree;
+            this.diets = diets;
+            this.insert = insert;
+            this.progress = new SeatingProgress(this);
+        }
+
+        private void stop () {
+            progress.cancel();
+        }
+
+        /**
+         * Checks if this worker seats the given sign-ups with the given table settings.
+         *
+         * @return <code>true</code> if starting a new run with these settings would repeat this one
+         */
+        private boolean seats (ArrayList <Student> students, int numTables, int tableSize, int stepFree, int diets) {
+            return numTables == this.numTables && tableSize == this.tableSize && stepFree == this.stepFree
+                    && diets == this.diets && roster.equals(students);
+        }
+
+        @Override
+        protected ArrayList <Table> doInBackground () {
+            //The first tables of the floor plan are the step-free ones
+            SeatingConstraints constraints = new SeatingConstraints();
+            for (int t = 0; t < Math.min(stepFree, numTables); t++) {
+                constraints.setStepFree(t);
+            }
+            constraints.setDietCap(diets);
+
+            if (insert) {
+                return SeatingAssignmentSystem.insertStudents(current, roster, numTables, tableSize, constraints);
+            }
+            return SeatingAssignmentSystem.assignTables(roster, numTables, tableSize, constraints, new ClusterArrangement(), new HillClimbingStrategy(), 1, 1, SeatingAssignmentSystem.newSeed(), System.nanoTime() + SeatingAssignmentSystem.TIME_LIMIT * 1000000000L, 0, progress);
+        }
+
+        @Override
+        public void improved (ArrayList <Table> arrangement, int totalHappiness) {
+            publish(arrangement);
+        }
+
+        @Override
+        protected void process (List <ArrayList <Table>> chunks) {
+            if (!progress.isCancelled()) {
+                display.showTables(chunks.get(chunks.size() - 1), numTables, tableSize, stepFree, diets, false);
+            }
+        }
+
+        @Override
+        protected void done () {
+            if (!progress.isCancelled()) {
+                try {
+                    display.showTables(get(), numTables, tableSize, stepFree, diets, true);
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
     private class sidePanel extends JPanel {
 
         private settingsPanel settings;
@@ -321,6 +514,12 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
             private JLabel numRowsLabel;
             private JFormattedTextField numRowsField;
 
+            private JLabel stepFreeLabel;
+            private JFormattedTextField stepFreeField;
+
+            private JLabel dietCapLabel;
+            private JFormattedTextField dietCapField;
+
             private settingsPanel () {
                 this.setBackground(Color.DARK_GRAY);
 
@@ -375,6 +574,36 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
                 c.gridy = 2;
                 this.add(numRowsField, c);
                 numRowsField.addPropertyChangeListener("value", this);
+
+                stepFreeLabel = new JLabel ("<html># of step-free tables <br>(0 for all)</html>");
+                stepFreeLabel.setForeground(Color.WHITE);
+                c.fill = GridBagConstraints.HORIZONTAL;
+                c.gridx = 0;
+                c.gridy = 3;
+                this.add(stepFreeLabel, c);
+
+                stepFreeField = new JFormattedTextField (nf);
+                stepFreeField.setValue(0);
+                c.fill = GridBagConstraints.HORIZONTAL;
+                c.gridx = 1;
+                c.gridy = 3;
+                this.add(stepFreeField, c);
+                stepFreeField.addPropertyChangeListener("value", this);
+
+                dietCapLabel = new JLabel ("<html>Max special diets <br>at a table (0 for no cap)</html>");
+                dietCapLabel.setForeground(Color.WHITE);
+                c.fill = GridBagConstraints.HORIZONTAL;
+                c.gridx = 0;
+                c.gridy = 4;
+                this.add(dietCapLabel, c);
+
+                dietCapField = new JFormattedTextField (nf);
+                dietCapField.setValue(0);
+                c.fill = GridBagConstraints.HORIZONTAL;
+                c.gridx = 1;
+                c.gridy = 4;
+                this.add(dietCapField, c);
+                dietCapField.addPropertyChangeListener("value", this);
             }
 
             @Override
@@ -385,6 +614,10 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
                     maxStudents = ((Number) maxStudentsField.getValue()).intValue();
                 } else if (evt.getSource() == numRowsField) {
                     numRows = ((Number) numRowsField.getValue()).intValue();
+                } else if (evt.getSource() == stepFreeField) {
+                    stepFreeTables = ((Number) stepFreeField.getValue()).intValue();
+                } else if (evt.getSource() == dietCapField) {
+                    dietCap = ((Number) dietCapField.getValue()).intValue();
                 }
 
                 rowLengths = new int [numRows];
@@ -397,7 +630,12 @@ public class FloorPlanSystem extends JPanel implements ActionListener {
                     rowLengths[i] += 1;
                 }
 
-                display.recalculate();
+                //The rows only change where the tables are drawn, so the arrangement shown is laid out again
+                if (evt.getSource() == numRowsField) {
+                    display.recalculate(0);
+                } else {
+                    display.recalculate();
+                }
             }
         }
 
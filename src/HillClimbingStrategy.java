@@ -0,0 +1,91 @@
+/**
+ * HillClimbingStrategy.java
+ * Version 1
+ * This class is the default seating engine. Every iteration it picks 2 random tables, finds the best swap
+ * between them and performs it if it increases the total happiness.
+ */
+
+//Imports
+import java.util.SplittableRandom;
+
+class HillClimbingStrategy implements SeatingStrategy {
+
+    //Most iterations that make one sweep
+    private static final int SWEEP_CAP = 1 << 20;
+
+    @Override
+    public SeatingState search(SeatingState state, long endTime, SplittableRandom random, SearchStats stats) {
+
+        int maxTables = state.getNumTables();
+        double maxIterations = Math.pow(state.getGraph().size(), 1.75) + 1000;
+        int iterations = 0;
+
+        if (maxTables <= 1) {
+            return state;
+        }
+
+        //Every iteration looks at 1 random pair of tables, so a sweep is about one look at every pair of tables, which
+        //is where a better swap can be; it is capped so a plateau still stops a run over thousands of tables
+        stats.setSweepLength((int) Math.min((long) maxTables * (maxTables - 1) / 2, SWEEP_CAP));
+
+        int maxHappinessIncrease = 0;
+        int swapStudent1 = -1;
+        int swapStudent2 = -1;
+
+        //While loop that check 2 tables every time and find the best swap for those 2 tables
+        //Terminates if runtime exceeds the time budget, if the run is cancelled, reaches the happiness bound or stops improving, or if it loops a certain amount of iterations, which is based on the student amount, allowing it to terminate earlier.
+        //The iteration cap only applies when the run doesn't stop on a plateau instead.
+        do {
+
+            maxHappinessIncrease = 0;
+            int tableIndex1 = random.nextInt(maxTables);
+            int tableIndex2 = random.nextInt(maxTables);
+
+            //Find 2 random tables that are different
+            while(tableIndex1 == tableIndex2) {
+                tableIndex2 = random.nextInt(maxTables);
+            }
+
+            //Loop though the students of the first table
+            for(int a=0; a<state.getTableCount(tableIndex1); a++) {
+
+                int student1 = state.getStudentAt(tableIndex1, a);
+
+                //Loop through the students of the second table
+                for(int b=0; b<state.getTableCount(tableIndex2); b++) {
+
+                    int student2 = state.getStudentAt(tableIndex2, b);
+                    int change = state.happinessChange(student1,student2);
+
+                    //If this swap increases total happiness more than the current best swap, and seats both students
+                    //where their accommodations are served and nobody they are excluded from sits
+                    if(change > maxHappinessIncrease && state.canSwap(student1, student2)) {
+
+                        //Store the student ids for the optimal swap
+                        maxHappinessIncrease = change;
+                        swapStudent1 = student1;
+                        swapStudent2 = student2;
+                    }
+                }
+            }
+
+            stats.addEvaluations(state.getTableCount(tableIndex1) * state.getTableCount(tableIndex2));
+
+            //If the best swap increases total happiness
+            if(maxHappinessIncrease > 0) {
+
+                //Perform the swap, which also updates the partner counts of both tables
+                state.swap(swapStudent1, swapStudent2);
+                stats.addSwap();
+                stats.improved(state);
+            }
+
+            //Add 1 to the total amount of iterations of the while loop
+            iterations++;
+            stats.addIteration();
+
+        } while((System.nanoTime() < endTime) && (stats.hasPlateau() || iterations < maxIterations) && !stats.shouldStop());
+
+        return state;
+    }
+}
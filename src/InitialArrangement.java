@@ -0,0 +1,21 @@
+/**
+ * InitialArrangement.java
+ * Version 1
+ * This interface is implemented by the ways of filling the tables before a seating strategy improves them.
+ * Every restart builds its own starting arrangement, so the start can be picked for every run like the strategy.
+ */
+
+//Imports
+import java.util.SplittableRandom;
+
+interface InitialArrangement {
+
+    /**
+     * fill
+     * This method seats students in an empty arrangement, table by table, until every student is seated or
+     * every table is full.
+     * @param //A SeatingState representing the empty arrangement, and the random number generator of the restart,
+     * so restarts start from different arrangements and the same seed starts from the same ones
+     */
+    void fill(SeatingState state, SplittableRandom random);
+}
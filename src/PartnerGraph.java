@@ -0,0 +1,431 @@
+/**
+ * PartnerGraph.java
+ * Version 1
+ * This class is a compact, int-indexed copy of the partner preferences of a roster of students.
+ * Every student is given a dense id (their position in the roster) and the partners they chose are
+ * stored in a CSR (compressed sparse row) adjacency array, so the seating solver never has to compare
+ * names or ids while it is searching. Every partner link also has a weight, taken from the rank of the partner in
+ * the student's list (Partner 1, Partner 2, ...) through a configurable rank-to-weight mapping, and stored in an int
+ * array next to the adjacency. With the default mapping every link weighs 1, so happiness counts partners.
+ * Pairs of students who must not share a table are kept the same way, in both
+ * directions, so the exclusions of a student are one slice of an array.
+ */
+
+//Imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+class PartnerGraph {
+
+    //Every partner weighs 1, whatever their rank
+    static final int[] UNWEIGHTED = {1};
+
+    //Students by dense id, and dense ids by student (name and id, or the same object for canonical partners)
+    private final Student[] students;
+    private final HashMap<Student, Integer> index;
+
+    //Partners chosen by student s are partners[partnerStart[s]] to partners[partnerStart[s+1]-1], and
+    //partnerWeights[i] is the weight of the link to partners[i]
+    private final int[] partnerStart;
+    private final int[] partners;
+    private final int[] partnerWeights;
+
+    //Students who chose student s are choosers[chooserStart[s]] to choosers[chooserStart[s+1]-1], and
+    //chooserWeights[i] is the weight choosers[i] gave to s
+    private final int[] chooserStart;
+    private final int[] choosers;
+    private final int[] chooserWeights;
+
+    //Whether every link weighs 1
+    private final boolean unweighted;
+
+    //Students who must not sit with student s are exclusions[exclusionStart[s]] to exclusions[exclusionStart[s+1]-1]
+    private final int[] exclusionStart;
+    private final int[] exclusions;
+
+    private PartnerGraph(Student[] students, HashMap<Student, Integer> index, int[] partnerStart, int[] partners, int[] partnerWeights, int[] chooserStart, int[] choosers, int[] chooserWeights, int[][] exclusions) {
+        this.students = students;
+        this.index = index;
+        this.partnerStart = partnerStart;
+        this.partners = partners;
+        this.partnerWeights = partnerWeights;
+        this.chooserStart = chooserStart;
+        this.choosers = choosers;
+        this.chooserWeights = chooserWeights;
+        this.unweighted = isUnweighted(partnerWeights);
+        this.exclusionStart = exclusions[0];
+        this.exclusions = exclusions[1];
+    }
+
+    /**
+     * compile
+     * This method builds the graph for a roster. The dense id of a student is their index in the roster.
+     * Partners that are not in the roster, students who chose themselves and repeated choices are left out.
+     * Every partner weighs 1.
+     * @param //An arraylist of students representing the roster
+     * @return A PartnerGraph representing the partner preferences of the roster
+     */
+    static PartnerGraph compile(ArrayList<Student> roster) {
+        return compile(roster, UNWEIGHTED);
+    }
+
+    /**
+     * compile
+     * This method builds the graph for a roster like compile above, weighting every partner by their rank.
+     * A partner's rank is their position in the student's list, also when partners before them are left out.
+     * @param //An arraylist of students representing the roster, and an array of integers representing the weight of
+     * Partner 1, Partner 2, ... in order; partners past the end of the array get its last weight
+     * @return A PartnerGraph representing the partner preferences of the roster
+     */
+    static PartnerGraph compile(ArrayList<Student> roster, int[] rankWeights) {
+
+        if (rankWeights.length == 0) {
+            throw new IllegalArgumentException("At least one rank weight is needed");
+        }
+        for (int w : rankWeights) {
+            if (w < 0) {
+                throw new IllegalArgumentException("Rank weights can't be negative");
+            }
+        }
+
+        int n = roster.size();
+        Student[] students = roster.toArray(new Student[n]);
+
+        //Index students once, so partners are resolved with one lookup each
+        HashMap<Student, Integer> index = new HashMap<Student, Integer>(n * 2);
+        for (int i = n - 1; i >= 0; i--) {
+            index.put(students[i], i);
+        }
+
+        //First pass: count the partners of each student that can be resolved
+        int[] partnerStart = new int[n + 1];
+        int[] chooserStart = new int[n + 1];
+        int[][] resolved = new int[n][];
+        int[][] weights = new int[n][];
+
+        for (int s = 0; s < n; s++) {
+
+            ArrayList<Student> chosen = students[s].getPartners();
+            int count = 0;
+            int[] row = new int[chosen == null ? 0 : chosen.size()];
+            int[] rowWeights = new int[row.length];
+
+            if (chosen != null) {
+                for (int rank = 0; rank < chosen.size(); rank++) {
+                    Integer id = index.get(chosen.get(rank));
+                    if (id != null && id != s && !contains(row, count, id)) {
+                        rowWeights[count] = rankWeights[Math.min(rank, rankWeights.length - 1)];
+                        row[count++] = id;
+                        chooserStart[id + 1]++;
+                    }
+                }
+            }
+
+            resolved[s] = row;
+            weights[s] = rowWeights;
+            partnerStart[s + 1] = partnerStart[s] + count;
+        }
+
+        for (int s = 0; s < n; s++) {
+            chooserStart[s + 1] += chooserStart[s];
+        }
+
+        //Second pass: fill both adjacency arrays
+        int[] partners = new int[partnerStart[n]];
+        int[] partnerWeights = new int[partnerStart[n]];
+        int[] choosers = new int[chooserStart[n]];
+        int[] chooserWeights = new int[chooserStart[n]];
+        int[] chooserFill = new int[n];
+
+        for (int s = 0; s < n; s++) {
+            int count = partnerStart[s + 1] - partnerStart[s];
+            System.arraycopy(resolved[s], 0, partners, partnerStart[s], count);
+            System.arraycopy(weights[s], 0, partnerWeights, partnerStart[s], count);
+
+            for (int i = 0; i < count; i++) {
+                int p = resolved[s][i];
+                chooserWeights[chooserStart[p] + chooserFill[p]] = weights[s][i];
+                choosers[chooserStart[p] + chooserFill[p]++] = s;
+            }
+        }
+
+        return new PartnerGraph(students, index, partnerStart, partners, partnerWeights, chooserStart, choosers, chooserWeights, compileExclusions(students, index));
+    }
+
+    /**
+     * compileExclusions
+     * This method builds the exclusion adjacency. An exclusion only has to be given by one of the two students,
+     * and exclusions of students who are not in the roster are left out. Every row is sorted and holds each
+     * excluded student once, also when both students gave the pair.
+     * @param //An array of students representing the roster by dense id, and the dense ids by student
+     * @return 2 arrays of integers representing the start of every student's exclusions, and the exclusions
+     */
+    private static int[][] compileExclusions(Student[] students, HashMap<Student, Integer> index) {
+
+        int n = students.length;
+        int[] degree = new int[n + 1];
+        int[][] resolved = new int[n][];
+
+        for (int s = 0; s < n; s++) {
+
+            ArrayList<Student> excluded = students[s].getExclusions();
+            int count = 0;
+            int[] row = new int[excluded == null ? 0 : excluded.size()];
+
+            if (excluded != null) {
+                for (Student e : excluded) {
+                    Integer id = index.get(e);
+                    if (id != null && id != s && !contains(row, count, id)) {
+                        row[count++] = id;
+                        degree[s + 1]++;
+                        degree[id + 1]++;
+                    }
+                }
+            }
+            resolved[s] = count == row.length ? row : Arrays.copyOf(row, count);
+        }
+
+        for (int s = 0; s < n; s++) {
+            degree[s + 1] += degree[s];
+        }
+
+        //Both directions of every pair, then each row sorted with repeats removed
+        int[] both = new int[degree[n]];
+        int[] fill = new int[n];
+        for (int s = 0; s < n; s++) {
+            for (int e : resolved[s]) {
+                both[degree[s] + fill[s]++] = e;
+                both[degree[e] + fill[e]++] = s;
+            }
+        }
+
+        int[] exclusionStart = new int[n + 1];
+        int size = 0;
+        for (int s = 0; s < n; s++) {
+            Arrays.sort(both, degree[s], degree[s + 1]);
+            exclusionStart[s] = size;
+            for (int i = degree[s]; i < degree[s + 1]; i++) {
+                if (i == degree[s] || both[i] != both[i - 1]) {
+                    both[size++] = both[i];
+                }
+            }
+        }
+        exclusionStart[n] = size;
+
+        return new int[][] {exclusionStart, Arrays.copyOf(both, size)};
+    }
+
+    private static boolean isUnweighted(int[] weights) {
+        for (int w : weights) {
+            if (w != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] row, int count, int id) {
+        for (int i = 0; i < count; i++) {
+            if (row[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * size
+     * @return An integer representing the amount of students in the graph
+     */
+    int size() {
+        return students.length;
+    }
+
+    /**
+     * getStudent
+     * @param //An integer representing a dense student id
+     * @return The student with the given id
+     */
+    Student getStudent(int s) {
+        return students[s];
+    }
+
+    /**
+     * indexOf
+     * This method finds the dense id of a student
+     * @param //A student
+     * @return An integer representing the student's id, or -1 if the student is not in the roster
+     */
+    int indexOf(Student s) {
+        Integer id = index.get(s);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * happinessBound
+     * This method computes an upper bound on the total happiness of any arrangement of the roster. A student can
+     * sit with at most tableSize-1 of the partners they chose, and at most tableSize-1 of the students who chose
+     * them can sit with them, so both caps bound the total: the heaviest tableSize-1 links out of and into every
+     * student. Only the students who get a seat count, so each cap is summed over the students with the largest
+     * caps that fit at the tables, and the smaller sum is the bound.
+     * @param //2 integers representing the amount of tables and the table capacity
+     * @return An integer that no arrangement's total happiness can exceed
+     */
+    int happinessBound(int numTables, int tableSize) {
+
+        int n = size();
+        int seats = (int) Math.min(n, (long) numTables * tableSize);
+        int cap = Math.max(0, tableSize - 1);
+
+        if (unweighted) {
+
+            //Count students by capped out-degree and capped in-degree
+            int[] outCaps = new int[cap + 1];
+            int[] inCaps = new int[cap + 1];
+            for (int s = 0; s < n; s++) {
+                outCaps[Math.min(cap, partnerEnd(s) - partnerStart(s))]++;
+                inCaps[Math.min(cap, chooserEnd(s) - chooserStart(s))]++;
+            }
+
+            return Math.min(sumLargest(outCaps, seats), sumLargest(inCaps, seats));
+        }
+
+        long[] outCaps = new long[n];
+        long[] inCaps = new long[n];
+        for (int s = 0; s < n; s++) {
+            outCaps[s] = heaviest(partnerWeights, partnerStart[s], partnerStart[s + 1], cap);
+            inCaps[s] = heaviest(chooserWeights, chooserStart[s], chooserStart[s + 1], cap);
+        }
+
+        return (int) Math.min(Integer.MAX_VALUE, Math.min(sumLargest(outCaps, seats), sumLargest(inCaps, seats)));
+    }
+
+    private static int sumLargest(int[] counts, int amount) {
+        int sum = 0;
+        for (int c = counts.length - 1; c > 0 && amount > 0; c--) {
+            int taken = Math.min(counts[c], amount);
+            sum += taken * c;
+            amount -= taken;
+        }
+        return sum;
+    }
+
+    private static long sumLargest(long[] values, int amount) {
+        Arrays.sort(values);
+        long sum = 0;
+        for (int i = values.length - 1; i >= values.length - amount; i--) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    private static long heaviest(int[] weights, int start, int end, int amount) {
+        if (end - start <= amount) {
+            long sum = 0;
+            for (int i = start; i < end; i++) {
+                sum += weights[i];
+            }
+            return sum;
+        }
+        int[] sorted = Arrays.copyOfRange(weights, start, end);
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (int i = sorted.length - amount; i < sorted.length; i++) {
+            sum += sorted[i];
+        }
+        return sum;
+    }
+
+    /**
+     * hasPartner
+     * This method checks if student s chose student p as a partner
+     * @param //2 integers representing dense student ids
+     * @return A boolean representing if p is one of s's partners
+     */
+    boolean hasPartner(int s, int p) {
+        for (int i = partnerStart[s]; i < partnerStart[s + 1]; i++) {
+            if (partners[i] == p) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * linkWeight
+     * This method gets the weight of the link from student s to student p
+     * @param //2 integers representing dense student ids
+     * @return An integer representing the weight s gave to p, 0 if s did not choose p
+     */
+    int linkWeight(int s, int p) {
+        for (int i = partnerStart[s]; i < partnerStart[s + 1]; i++) {
+            if (partners[i] == p) {
+                return partnerWeights[i];
+            }
+        }
+        return 0;
+    }
+
+    int partnerStart(int s) {
+        return partnerStart[s];
+    }
+
+    int partnerEnd(int s) {
+        return partnerStart[s + 1];
+    }
+
+    int partner(int i) {
+        return partners[i];
+    }
+
+    int partnerWeight(int i) {
+        return partnerWeights[i];
+    }
+
+    int chooserStart(int s) {
+        return chooserStart[s];
+    }
+
+    int chooserEnd(int s) {
+        return chooserStart[s + 1];
+    }
+
+    int chooser(int i) {
+        return choosers[i];
+    }
+
+    int chooserWeight(int i) {
+        return chooserWeights[i];
+    }
+
+    /**
+     * hasExclusions
+     * @return A boolean representing if any pair of students must not share a table
+     */
+    boolean hasExclusions() {
+        return exclusions.length > 0;
+    }
+
+    /**
+     * isExcluded
+     * This method checks if two students must not share a table
+     * @param //2 integers representing dense student ids
+     * @return A boolean representing if the pair is excluded
+     */
+    boolean isExcluded(int s, int e) {
+        return Arrays.binarySearch(exclusions, exclusionStart[s], exclusionStart[s + 1], e) >= 0;
+    }
+
+    int exclusionStart(int s) {
+        return exclusionStart[s];
+    }
+
+    int exclusionEnd(int s) {
+        return exclusionStart[s + 1];
+    }
+
+    int exclusion(int i) {
+        return exclusions[i];
+    }
+}
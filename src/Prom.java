@@ -12,6 +12,8 @@ import java.awt.Font;
 import java.awt.Toolkit;
 import java.util.ArrayList;
 import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Paths;
 import javax.swing.JScrollPane;
 
 public class Prom extends JFrame {
@@ -21,8 +23,13 @@ public class Prom extends JFrame {
     private TicketingSystem ticketingPanel;
     private FloorPlanSystem floorPanel;
 
-    //Master List of Students
+    //Master List of Students, and the index over it
     private ArrayList<Student> students;
+    private StudentRegistry registry;
+
+    //Journal of every change to the master list, replayed on startup
+    private final String JOURNAL_FILE = "registrations.journal";
+    private RegistrationJournal journal;
 
     //Scroll Bar increments
     private final int SCROLL_UNIT = 30;
@@ -34,11 +41,17 @@ public class Prom extends JFrame {
         return this.students;
     }
 
+    public StudentRegistry getRegistry() {
+        return this.registry;
+    }
+
     Prom() {
         super("PROM 2021 SIGN UP");
 
         //Init
         students = new ArrayList<>();
+        registry = new StudentRegistry(students);
+        openJournal();
         ticketingPanel = new TicketingSystem(this);
         floorPanel = new FloorPlanSystem(this);
         menu = new Menu(this);
@@ -60,6 +73,34 @@ public class Prom extends JFrame {
         this.setVisible(true);
     }
 
+    /**
+     openJournal()
+     This method restores the master list from the registration journal and keeps the journal open for new sign ups.
+     If the journal can't be opened, sign ups still work but are not saved.
+     */
+    private void openJournal() {
+        try {
+            journal = RegistrationJournal.open(Paths.get(JOURNAL_FILE), registry);
+            System.out.println("Restored " + students.size() + " students from " + JOURNAL_FILE);
+
+            //Force the last sign ups to disk when the program exits
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        } catch (IOException e) {
+            System.out.println("Registration journal unavailable, sign ups will not be saved: " + e.getMessage());
+            journal = null;
+        }
+    }
+
+    public RegistrationJournal getJournal() {
+        return journal;
+    }
+
     public TicketingSystem getTicketingPanel() {
         return ticketingPanel;
     }
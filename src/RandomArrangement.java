@@ -0,0 +1,42 @@
+/**
+ * RandomArrangement.java
+ * Version 1
+ * This class is the default starting arrangement: the students are shuffled and the tables are filled in order.
+ * Students with accommodations are seated first, at tables that serve them.
+ */
+
+//Imports
+import java.util.SplittableRandom;
+
+class RandomArrangement implements InitialArrangement {
+
+    @Override
+    public void fill(SeatingState state, SplittableRandom random) {
+
+        PartnerGraph graph = state.getGraph();
+
+        //Randomize student order
+        int[] order = new int[graph.size()];
+        for (int i = 0; i < order.length; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+
+        state.seatAccommodated(order);
+
+        int studentIndex = 0;
+
+        //Fill tables first
+        for(int t = 0; t < state.getNumTables(); t++) {
+
+            while( (!state.isFull(t)) && (studentIndex < order.length)) {
+                int s = order[studentIndex];
+                if (state.getSeat(s) < 0 && state.canSeat(s, t)) {
+                    state.seatStudent(s, t);
+                }
+                studentIndex++;
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/**
+ * RegistrationImport.java
+ * Version 1
+ * This class bulk imports sign ups from a CSV file, one sign up per row:
+ * name,student number,accommodations,partner 1 name,partner 1 number,partner 2 name,partner 2 number,...
+ * Accommodations are separated by semicolons and may be left empty. Fields may be quoted with double quotes.
+ * Blank rows and rows starting with # are skipped.
+ *
+ * The file is streamed in batches of rows. Each batch is parsed and checked against the sign up form's rules
+ * in parallel while the next batch is read, and the valid rows of a batch are merged into the master list as soon as
+ * it is checked, in file order, exactly as if each had been submitted through the form. Only the batches being read
+ * and checked are held in memory, whatever the size of the file. Rows that break a rule are reported by line.
+ * Partners who are not in the master list stay dangling references in the registry until they sign up.
+ */
+
+//Imports
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+
+class RegistrationImport {
+
+    //Rows read and checked per batch
+    private static final int BATCH_SIZE = 4096;
+
+    private final StudentRegistry registry;
+    private final RegistrationJournal journal;
+    private final ArrayList<String> errors = new ArrayList<String>();
+    private int rowCount;
+    private int added;
+
+    private RegistrationImport(StudentRegistry registry, RegistrationJournal journal) {
+        this.registry = registry;
+        this.journal = journal;
+    }
+
+    /**
+     * read
+     * This method streams a CSV file of sign ups, checks every row and merges the valid rows into the master list
+     * the way the sign up form does, recording the changes in the journal if there is one
+     * @param //A path representing the CSV file, a StudentRegistry representing the master list, the journal to
+     * record to (or null), and the Executor every batch is merged on, so the merge can run on the thread that owns
+     * the master list; the batches are merged one at a time, in file order
+     * @return A RegistrationImport holding the counts and an error for every invalid row
+     * @throws IOException if the file can't be read
+     */
+    static RegistrationImport read(Path file, StudentRegistry registry, RegistrationJournal journal, Executor merger) throws IOException {
+
+        RegistrationImport csv = new RegistrationImport(registry, journal);
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+
+            CompletableFuture<Row[]> pending = null;
+            int lineNumber = 0;
+
+            while (true) {
+
+                //Read the next batch while the last one is being checked
+                String[] lines = new String[BATCH_SIZE];
+                int count = 0;
+                String line;
+                while (count < BATCH_SIZE && (line = in.readLine()) != null) {
+                    lines[count++] = line;
+                }
+
+                if (pending != null) {
+                    Row[] batch = pending.join();
+                    merger.execute(() -> csv.merge(batch));
+                }
+                if (count == 0) {
+                    break;
+                }
+
+                final int first = lineNumber + 1;
+                final int size = count;
+                pending = CompletableFuture.supplyAsync(() -> IntStream.range(0, size).parallel()
+                        .mapToObj(i -> parse(first + i, lines[i]))
+                        .toArray(Row[]::new));
+                lineNumber += count;
+            }
+        }
+
+        //One commit for the whole import
+        if (journal != null) {
+            merger.execute(() -> {
+                try {
+                    journal.commit();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            });
+        }
+        return csv;
+    }
+
+    /**
+     * parse
+     * This method splits a row into fields and checks them with the sign up form's rules
+     * @param //An integer representing the line number, and the line
+     * @return A row, a row holding an error message if it is invalid, or null if the line is skipped
+     */
+    private static Row parse(int lineNumber, String line) {
+
+        if (line.trim().isEmpty() || line.startsWith("#")) {
+            return null;
+        }
+
+        ArrayList<String> fields = RosterFile.split(line);
+        if (fields == null) {
+            return new Row(lineNumber, "Unterminated quote");
+        }
+        if (fields.size() < 3 || fields.size() % 2 == 0) {
+            return new Row(lineNumber, "Expected name, student number, accommodations and partner name/number pairs");
+        }
+
+        int partnerCount = (fields.size() - 3) / 2;
+        if (partnerCount > TicketingSystem.MAX_PARTNERS) {
+            return new Row(lineNumber, "More than " + TicketingSystem.MAX_PARTNERS + " partners");
+        }
+
+        ArrayList<String> required = new ArrayList<String>(2 + partnerCount);
+        required.add(fields.get(0));
+        required.add(fields.get(1));
+        for (int i = 0; i < partnerCount; i++) {
+            required.add(fields.get(3 + 2 * i));
+        }
+        if (!TicketingSystem.areFieldsFilled(required)) {
+            return new Row(lineNumber, "One or more fields are not filled");
+        }
+        if (!TicketingSystem.isParseable(fields.get(1))) {
+            return new Row(lineNumber, "Student Number not appropriate");
+        }
+
+        String[] partnerNames = new String[partnerCount];
+        String[] partnerIds = new String[partnerCount];
+        for (int i = 0; i < partnerCount; i++) {
+            partnerNames[i] = fields.get(3 + 2 * i);
+            partnerIds[i] = fields.get(4 + 2 * i);
+            if (!TicketingSystem.isParseable(partnerIds[i])) {
+                return new Row(lineNumber, "Partner Number " + (i + 1) + " is invalid");
+            }
+        }
+
+        ArrayList<String> accommodations = new ArrayList<String>();
+        if (!fields.get(2).isEmpty()) {
+            accommodations.addAll(Arrays.asList(fields.get(2).split("\\s*;\\s*")));
+        }
+
+        return new Row(lineNumber, fields.get(0), fields.get(1), accommodations, partnerNames, partnerIds);
+    }
+
+    /**
+     * merge
+     * This method adds or updates every valid row of a batch in the master list the way the sign up form does, and
+     * records the changes in the journal if there is one
+     * @param //An array of rows representing the batch, with null for skipped lines
+     */
+    private void merge(Row[] batch) {
+
+        for (Row row : batch) {
+
+            if (row == null) {
+                continue;
+            }
+            if (row.error != null) {
+                errors.add("Line " + row.line + ": " + row.error);
+                continue;
+            }
+            rowCount++;
+
+            Student user = new Student(row.name, row.id);
+            boolean isNew = !registry.contains(user);
+            Student saved = registry.register(user);
+            if (isNew) {
+                added++;
+                if (journal != null) {
+                    journal.studentAdded(saved);
+                }
+            }
+
+            ArrayList<Student> partners = new ArrayList<Student>(row.partnerNames.length);
+            for (int i = 0; i < row.partnerNames.length; i++) {
+                partners.add(registry.resolve(row.partnerNames[i], row.partnerIds[i]));
+            }
+
+            saved.setPartners(partners);
+            if (!row.accommodations.isEmpty()) {
+                saved.setAccommodations(row.accommodations);
+            }
+            saved.setPaid(true);
+
+            if (journal != null) {
+                journal.partnersSet(saved, saved.getPartners());
+                journal.accommodationsSet(saved, saved.getAccommodations());
+                journal.paidSet(saved, true);
+            }
+        }
+    }
+
+    /**
+     * getRowCount
+     * @return An integer representing the amount of valid rows
+     */
+    int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * getAdded
+     * @return An integer representing the amount of students added to the master list
+     */
+    int getAdded() {
+        return added;
+    }
+
+    /**
+     * getErrors
+     * @return An arraylist of messages, one per invalid row, in file order
+     */
+    ArrayList<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * main
+     * Imports a CSV file into a roster file, creating the roster if it doesn't exist
+     * Usage: java RegistrationImport <csv file> <roster file>
+     */
+    public static void main(String[] args) {
+
+        if (args.length != 2) {
+            System.err.println("Usage: java RegistrationImport <csv file> <roster file>");
+            System.exit(2);
+        }
+
+        try {
+            Path rosterFile = Paths.get(args[1]);
+            ArrayList<Student> students = Files.exists(rosterFile) ? RosterFile.read(rosterFile) : new ArrayList<Student>();
+            StudentRegistry registry = new StudentRegistry(students);
+
+            long startTime = System.nanoTime();
+            RegistrationImport csv = read(Paths.get(args[0]), registry, null, Runnable::run);
+            double elapsed = (System.nanoTime() - startTime) / 1000000000.0;
+
+            for (String error : csv.getErrors()) {
+                System.err.println(error);
+            }
+            System.out.println("Imported " + csv.getRowCount() + " rows, added " + csv.getAdded() + " students, rejected "
+                    + csv.getErrors().size() + " rows in " + elapsed + "s, " + registry.getDangling().size() + " partners have not signed up");
+
+            RosterFile.write(rosterFile, students);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Row
+     * One checked sign up, or the reason it was rejected
+     */
+    private static class Row {
+
+        private final int line;
+        private final String error;
+        private final String name;
+        private final String id;
+        private final ArrayList<String> accommodations;
+        private final String[] partnerNames;
+        private final String[] partnerIds;
+
+        private Row(int line, String error) {
+            this(line, error, null, null, null, null, null);
+        }
+
+        private Row(int line, String name, String id, ArrayList<String> accommodations, String[] partnerNames, String[] partnerIds) {
+            this(line, null, name, id, accommodations, partnerNames, partnerIds);
+        }
+
+        private Row(int line, String error, String name, String id, ArrayList<String> accommodations, String[] partnerNames, String[] partnerIds) {
+            this.line = line;
+            this.error = error;
+            this.name = name;
+            this.id = id;
+            this.accommodations = accommodations;
+            this.partnerNames = partnerNames;
+            this.partnerIds = partnerIds;
+        }
+    }
+}
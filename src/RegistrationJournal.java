@@ -0,0 +1,390 @@
+/**
+ * RegistrationJournal.java
+ * Version 1
+ * This class is an append-only journal of every change the sign up form makes to the master list of students,
+ * so registrations survive a crash. The journal file is memory-mapped: appending a record is a copy into the
+ * mapped pages, which the operating system keeps even if the program dies. Forcing the pages to disk is done
+ * by a background thread for all records appended since the last force at once (group commit), and commit()
+ * waits for the force that covers the caller's records.
+ *
+ * File layout: an 8 byte magic number and a 4 byte version, then records of
+ * [int payload length][int CRC32 of payload][payload]. A payload is a 1 byte record type followed by the
+ * student's name and number and the type's fields. Strings are an int byte count and UTF-8 bytes.
+ * The unused end of the file is zeros, so replay stops at the first zero length or bad checksum.
+ */
+
+//Imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+class RegistrationJournal implements Closeable {
+
+    private static final long MAGIC = 0x50524f4d4a524e4cL; //"PROMJRNL"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+
+    //The mapping grows by this much whenever a record doesn't fit
+    private static final int MAP_CHUNK = 4 << 20;
+
+    //Longest time appended records wait before they are forced to disk
+    private static final long FLUSH_INTERVAL_MS = 10;
+
+    //Record types
+    private static final byte STUDENT_ADDED = 1;
+    private static final byte PARTNERS_SET = 2;
+    private static final byte ACCOMMODATIONS_SET = 3;
+    private static final byte PAID_SET = 4;
+
+    private final FileChannel channel;
+    private final Thread flusher;
+    private MappedByteBuffer map;
+
+    //Sequence numbers of the last appended record and the last record forced to disk
+    private long appended;
+    private long forced;
+    private boolean closed;
+
+    private RegistrationJournal(FileChannel channel) {
+        this.channel = channel;
+        this.flusher = new Thread(this::flushLoop, "Registration journal flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * open
+     * This method opens a journal file, creating it if it doesn't exist, and replays it into a master list
+     * @param //A path representing the journal file, and the registry of the master list to replay the journal into
+     * @return The open journal, positioned after the last complete record
+     * @throws IOException if the file can't be opened or is not a journal
+     */
+    static RegistrationJournal open(Path file, StudentRegistry students) throws IOException {
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        RegistrationJournal journal = new RegistrationJournal(channel);
+
+        try {
+            long size = Math.max(channel.size(), MAP_CHUNK);
+            journal.map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            if (journal.map.getLong(0) == 0) {
+                journal.map.putLong(0, MAGIC);
+                journal.map.putInt(8, VERSION);
+            } else if (journal.map.getLong(0) != MAGIC || journal.map.getInt(8) != VERSION) {
+                throw new IOException(file + " is not a registration journal");
+            }
+
+            journal.map.position(HEADER_SIZE);
+            journal.replay(students);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        journal.flusher.start();
+        return journal;
+    }
+
+    /**
+     * replay
+     * This method applies every complete record to the list of students, leaving the map positioned after them
+     * @param //The registry of the master list to replay into
+     */
+    private void replay(StudentRegistry students) {
+
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = map.duplicate();
+        boolean torn = false;
+
+        while (map.remaining() >= 8) {
+
+            int start = map.position();
+            int length = map.getInt(start);
+
+            //A zero length is the unused end of the file, anything that doesn't fit or check out is a torn write
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || length > map.remaining() - 8) {
+                torn = true;
+                break;
+            }
+
+            payload.limit(start + 8 + length).position(start + 8);
+            crc.reset();
+            crc.update(payload);
+            payload.position(start + 8);
+            if ((int) crc.getValue() != map.getInt(start + 4)) {
+                torn = true;
+                break;
+            }
+
+            apply(payload, students);
+            map.position(start + 8 + length);
+        }
+
+        //Clear what is left of a torn write, so it is never read back after the next record
+        if (torn) {
+            for (int i = map.position(); i < map.capacity(); i++) {
+                map.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private static void apply(ByteBuffer payload, StudentRegistry students) {
+
+        byte type = payload.get();
+        Student student = new Student(getString(payload), getString(payload));
+
+        //Students are looked up through the registry, so partners resolve to the same objects the form would use
+        if (type == STUDENT_ADDED) {
+            students.register(student);
+            return;
+        }
+
+        student = students.find(student);
+        if (student == null) {
+            return;
+        }
+
+        if (type == PARTNERS_SET) {
+            int count = payload.getInt();
+            ArrayList<Student> partners = new ArrayList<Student>(count);
+            for (int i = 0; i < count; i++) {
+                partners.add(students.resolve(getString(payload), getString(payload)));
+            }
+            student.setPartners(partners);
+        } else if (type == ACCOMMODATIONS_SET) {
+            int count = payload.getInt();
+            ArrayList<String> accommodations = new ArrayList<String>(count);
+            for (int i = 0; i < count; i++) {
+                accommodations.add(getString(payload));
+            }
+            student.setAccommodations(accommodations);
+        } else if (type == PAID_SET) {
+            student.setPaid(payload.get() != 0);
+        }
+    }
+
+    /**
+     * studentAdded
+     * This method records that a student was added to the master list
+     */
+    void studentAdded(Student s) {
+        ByteBuffer payload = payload(STUDENT_ADDED, s, 0);
+        append(payload);
+    }
+
+    /**
+     * partnersSet
+     * This method records that a student's partners were replaced
+     */
+    void partnersSet(Student s, ArrayList<Student> partners) {
+        int size = 4;
+        for (Student p : partners) {
+            size += stringSize(p.getName()) + stringSize(p.getId());
+        }
+
+        ByteBuffer payload = payload(PARTNERS_SET, s, size);
+        payload.putInt(partners.size());
+        for (Student p : partners) {
+            putString(payload, p.getName());
+            putString(payload, p.getId());
+        }
+        append(payload);
+    }
+
+    /**
+     * accommodationsSet
+     * This method records that a student's accommodations were replaced
+     */
+    void accommodationsSet(Student s, ArrayList<String> accommodations) {
+        int size = 4;
+        for (String a : accommodations) {
+            size += stringSize(a);
+        }
+
+        ByteBuffer payload = payload(ACCOMMODATIONS_SET, s, size);
+        payload.putInt(accommodations.size());
+        for (String a : accommodations) {
+            putString(payload, a);
+        }
+        append(payload);
+    }
+
+    /**
+     * paidSet
+     * This method records a change to a student's paid flag
+     */
+    void paidSet(Student s, boolean paid) {
+        ByteBuffer payload = payload(PAID_SET, s, 1);
+        payload.put((byte) (paid ? 1 : 0));
+        append(payload);
+    }
+
+    /**
+     * commit
+     * This method waits until every record appended so far has been forced to disk by the flusher thread
+     * @throws IOException if the journal was closed
+     */
+    synchronized void commit() throws IOException {
+
+        long target = appended;
+        notifyAll();
+
+        while (forced < target) {
+            if (closed) {
+                throw new IOException("Registration journal is closed");
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while committing the registration journal", e);
+            }
+        }
+    }
+
+    /**
+     * close
+     * This method forces the last records to disk and closes the journal file
+     */
+    @Override
+    public void close() throws IOException {
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            map.force();
+            forced = appended;
+            notifyAll();
+        }
+        channel.close();
+    }
+
+    /**
+     * flushLoop
+     * The flusher thread: forces the mapped pages to disk once for all the records appended since the last force
+     */
+    private void flushLoop() {
+
+        while (true) {
+
+            long target;
+            MappedByteBuffer current;
+
+            synchronized (this) {
+                while (!closed && forced == appended) {
+                    try {
+                        wait(FLUSH_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                target = appended;
+                current = map;
+            }
+
+            //Records appended while the force runs are picked up by the next one
+            current.force();
+
+            synchronized (this) {
+                forced = Math.max(forced, target);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * append
+     * This method copies a record into the mapped file, growing the mapping if it doesn't fit
+     */
+    private synchronized void append(ByteBuffer payload) {
+
+        if (closed) {
+            throw new IllegalStateException("Registration journal is closed");
+        }
+
+        payload.flip();
+        int length = payload.remaining();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        try {
+            //Keep room for the zero length that marks the end of the journal
+            if (map.remaining() < length + 16) {
+                grow(length + 16);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Registration journal could not grow", e);
+        }
+
+        //Write the payload and checksum before the length, so a partial record always reads as the end
+        int start = map.position();
+        map.position(start + 8);
+        map.put(payload);
+        map.putInt(start + 4, (int) crc.getValue());
+        map.putInt(start, length);
+
+        appended++;
+    }
+
+    private void grow(int needed) throws IOException {
+
+        //Flush what is mapped now; the new mapping of the same file takes over from here
+        map.force();
+
+        int position = map.position();
+        long size = map.capacity() + Math.max(MAP_CHUNK, needed);
+
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        map.position(position);
+    }
+
+    private static ByteBuffer payload(byte type, Student s, int size) {
+        ByteBuffer payload = ByteBuffer.allocate(1 + stringSize(s.getName()) + stringSize(s.getId()) + size);
+        payload.put(type);
+        putString(payload, s.getName());
+        putString(payload, s.getId());
+        return payload;
+    }
+
+    private static int stringSize(String s) {
+        return 4 + s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void putString(ByteBuffer buffer, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
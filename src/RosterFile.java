@@ -0,0 +1,199 @@
+/**
+ * RosterFile.java
+ * Version 1
+ * This class reads a roster of students from a text file, one sign-up per line:
+ * name,student number,accommodations,partner 1 name,partner 1 number,partner 2 name,partner 2 number,...
+ * Accommodations are separated by semicolons and may be left empty. A field holding a comma or a double quote is
+ * written in double quotes, with its quotes doubled, and read back the same way. Blank lines and lines starting with #
+ * are skipped. Like the sign up form, partners who did not sign up themselves are left out of the roster and kept
+ * as dangling references, which become the registered student if a later line signs them up.
+ * Pairs of students who must not share a table are read from a separate exclusions file, one pair per line:
+ * name 1,student number 1,name 2,student number 2
+ */
+
+//Imports
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+class RosterFile {
+
+    /**
+     * read
+     * This method reads a roster file
+     * @param //A path representing the roster file
+     * @return An arraylist of students representing the roster
+     * @throws IOException if the file can't be read or a line is not a valid sign-up
+     */
+    static ArrayList<Student> read(Path file) throws IOException {
+
+        StudentRegistry students = new StudentRegistry(new ArrayList<Student>());
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+
+            String line;
+            int lineNumber = 0;
+
+            while ((line = in.readLine()) != null) {
+
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                ArrayList<String> fields = split(line);
+                if (fields == null) {
+                    throw new IOException(file + ":" + lineNumber + ": unterminated quote");
+                }
+                if (fields.size() < 3 || fields.size() % 2 == 0) {
+                    throw new IOException(file + ":" + lineNumber + ": expected name, number, accommodations and partner name/number pairs");
+                }
+                if (fields.get(0).isEmpty() || fields.get(1).isEmpty()) {
+                    throw new IOException(file + ":" + lineNumber + ": name and student number can't be empty");
+                }
+
+                //Add or update the student who signed up
+                Student user = students.register(new Student(fields.get(0), fields.get(1)));
+                user.setPaid(true);
+
+                if (!fields.get(2).isEmpty()) {
+                    user.setAccommodations(new ArrayList<String>(Arrays.asList(fields.get(2).split("\\s*;\\s*"))));
+                }
+
+                ArrayList<Student> partners = new ArrayList<Student>();
+                for (int i = 3; i + 1 < fields.size(); i += 2) {
+                    partners.add(students.resolve(fields.get(i), fields.get(i + 1)));
+                }
+                user.setPartners(partners);
+            }
+        }
+        return students.getStudents();
+    }
+
+    /**
+     * readExclusions
+     * This method reads an exclusions file and adds every pair to both students' exclusions
+     * @param //A path representing the exclusions file, and an arraylist of students representing the roster
+     * @return An integer representing the amount of pairs read
+     * @throws IOException if the file can't be read, a line is not a pair, or a student is not in the roster
+     */
+    static int readExclusions(Path file, ArrayList<Student> roster) throws IOException {
+
+        StudentRegistry students = new StudentRegistry(roster);
+        int pairs = 0;
+
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+
+            String line;
+            int lineNumber = 0;
+
+            while ((line = in.readLine()) != null) {
+
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+
+                ArrayList<String> fields = split(line);
+                if (fields == null || fields.size() != 4) {
+                    throw new IOException(file + ":" + lineNumber + ": expected name, number, name and number of a pair");
+                }
+
+                Student first = students.find(new Student(fields.get(0), fields.get(1)));
+                Student second = students.find(new Student(fields.get(2), fields.get(3)));
+                if (first == null || second == null) {
+                    throw new IOException(file + ":" + lineNumber + ": " + (first == null ? fields.get(0) : fields.get(2)) + " is not in the roster");
+                }
+
+                if (first != second && !first.getExclusions().contains(second)) {
+                    first.getExclusions().add(second);
+                    second.getExclusions().add(first);
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * write
+     * This method writes a roster in the format read() reads
+     * @param //A path representing the roster file, and an arraylist of students representing the roster
+     * @throws IOException if the file can't be written
+     */
+    static void write(Path file, ArrayList<Student> students) throws IOException {
+
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+
+            for (Student s : students) {
+
+                out.write(quote(s.getName()) + "," + quote(s.getId()) + "," + quote(String.join(";", s.getAccommodations())));
+
+                for (Student p : s.getPartners()) {
+                    out.write("," + quote(p.getName()) + "," + quote(p.getId()));
+                }
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * split
+     * This method splits a line of a roster or CSV file into trimmed fields. A quoted field may hold commas and
+     * doubled quotes.
+     * @param //A string representing the line
+     * @return An arraylist of the fields, or null if a quote is not closed
+     */
+    static ArrayList<String> split(String line) {
+
+        ArrayList<String> fields = new ArrayList<String>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    /**
+     * quote
+     * This method quotes a field that split would otherwise break up
+     * @param //A string representing the field
+     * @return The field, in double quotes with its quotes doubled if it holds a comma or a double quote, or starts
+     * with # like a comment line
+     */
+    static String quote(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && !field.startsWith("#")) {
+            return field;
+        }
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+}
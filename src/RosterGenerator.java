@@ -0,0 +1,221 @@
+/**
+ * RosterGenerator.java
+ * Version 1
+ * This class makes synthetic rosters shaped like real prom sign-ups, for load testing the seating system
+ * and the floor plan. Students are split into friend groups and mostly choose partners inside their group,
+ * sometimes in the next group over. A chosen partner chooses back with some probability, so there is a mix
+ * of reciprocal and one-way choices, and no student chooses more than TicketingSystem.MAX_PARTNERS partners.
+ * The same seed always gives the same roster.
+ */
+
+//Imports
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+
+class RosterGenerator {
+
+    private static final String[] FIRST_NAMES = {"Aryan", "Nischay", "Andy", "Charles", "Cindy", "Emma", "Liam",
+            "Olivia", "Noah", "Ava", "Ethan", "Sophia", "Lucas", "Mia", "Mason", "Chloe", "Daniel", "Zoe", "Ryan",
+            "Hannah", "Kevin", "Priya", "Omar", "Fatima", "Wei", "Mei", "Jaden", "Isabella", "Arjun", "Leila"};
+    private static final String[] LAST_NAMES = {"Li", "Wong", "Wang", "Uppal", "Abed", "Smith", "Patel", "Chen",
+            "Singh", "Nguyen", "Brown", "Tremblay", "Martin", "Roy", "Gagnon", "Lee", "Khan", "Kim", "Ali", "Zhang",
+            "Wilson", "Taylor", "Campbell", "Anderson", "Sharma", "Ahmed", "Park", "Lopez", "Rossi", "Cohen"};
+    private static final String[] ACCOMMODATIONS = {"Vegetarian", "Vegan", "Gluten free", "Nut allergy",
+            "Halal", "Kosher", "Wheelchair access"};
+
+    private final long seed;
+
+    private int minGroupSize = 2;
+    private int maxGroupSize = 12;
+    private int maxPartners = TicketingSystem.MAX_PARTNERS;
+    private double reciprocity = 0.7;
+    private double outsideChoice = 0.1;
+    private double accommodationRate = 0.05;
+
+    /**
+     * RosterGenerator
+     * This constructor creates a generator with the default roster shape
+     * @param //A long representing the random seed
+     */
+    RosterGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * setGroupSizes
+     * This method sets the range of friend group sizes
+     * @param //2 integers representing the smallest and largest group size
+     */
+    void setGroupSizes(int minGroupSize, int maxGroupSize) {
+        if (minGroupSize < 1 || maxGroupSize < minGroupSize) {
+            throw new IllegalArgumentException("Group sizes must be at least 1 and in order");
+        }
+        this.minGroupSize = minGroupSize;
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    /**
+     * setMaxPartners
+     * This method sets the most partners a student chooses; each student chooses between 1 and this many
+     * @param //An integer from 1 to TicketingSystem.MAX_PARTNERS
+     */
+    void setMaxPartners(int maxPartners) {
+        if (maxPartners < 1 || maxPartners > TicketingSystem.MAX_PARTNERS) {
+            throw new IllegalArgumentException("Students choose between 1 and " + TicketingSystem.MAX_PARTNERS + " partners");
+        }
+        this.maxPartners = maxPartners;
+    }
+
+    /**
+     * setReciprocity
+     * @param //A double representing the probability that a chosen partner chooses back
+     */
+    void setReciprocity(double reciprocity) {
+        this.reciprocity = reciprocity;
+    }
+
+    /**
+     * setOutsideChoice
+     * @param //A double representing the probability that a choice goes to the next friend group
+     */
+    void setOutsideChoice(double outsideChoice) {
+        this.outsideChoice = outsideChoice;
+    }
+
+    /**
+     * setAccommodationRate
+     * @param //A double representing the probability that a student needs an accommodation
+     */
+    void setAccommodationRate(double accommodationRate) {
+        this.accommodationRate = accommodationRate;
+    }
+
+    /**
+     * generate
+     * This method makes a roster
+     * @param //An integer representing the amount of students
+     * @return An arraylist of students, in sign-up order, with partners and accommodations set
+     */
+    ArrayList<Student> generate(int students) {
+
+        Random random = new Random(seed);
+
+        //Friend groups are consecutive runs of a shuffled order
+        int[] order = new int[students];
+        for (int i = 0; i < students; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+
+        int[] groupStart = new int[students];
+        int[] groupEnd = new int[students];
+        for (int start = 0; start < students; ) {
+            int end = Math.min(students, start + minGroupSize + random.nextInt(maxGroupSize - minGroupSize + 1));
+            for (int i = start; i < end; i++) {
+                groupStart[i] = start;
+                groupEnd[i] = end;
+            }
+            start = end;
+        }
+
+        //Choices are made on positions in the shuffled order
+        int[][] choices = new int[students][maxPartners];
+        int[] choiceCounts = new int[students];
+
+        for (int i = 0; i < students; i++) {
+
+            int wanted = 1 + random.nextInt(maxPartners);
+
+            for (int attempt = 0; attempt < 2 * wanted && choiceCounts[i] < wanted; attempt++) {
+
+                int j;
+                if (random.nextDouble() < outsideChoice || groupEnd[i] - groupStart[i] == 1) {
+                    //Someone in the next group, which links neighbouring groups into larger clusters
+                    int next = groupEnd[i] % students;
+                    j = next + random.nextInt(groupEnd[next] - next);
+                } else {
+                    j = groupStart[i] + random.nextInt(groupEnd[i] - groupStart[i]);
+                }
+
+                if (j != i && add(choices, choiceCounts, i, j) && random.nextDouble() < reciprocity) {
+                    add(choices, choiceCounts, j, i);
+                }
+            }
+        }
+
+        //Build the students
+        ArrayList<Student> roster = new ArrayList<Student>(students);
+        Student[] byPosition = new Student[students];
+
+        for (int s = 0; s < students; s++) {
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            Student student = new Student(name, String.valueOf(1000000 + s));
+            student.setPaid(true);
+
+            if (random.nextDouble() < accommodationRate) {
+                ArrayList<String> accommodations = new ArrayList<String>();
+                accommodations.add(ACCOMMODATIONS[random.nextInt(ACCOMMODATIONS.length)]);
+                student.setAccommodations(accommodations);
+            }
+
+            roster.add(student);
+        }
+
+        for (int i = 0; i < students; i++) {
+            byPosition[i] = roster.get(order[i]);
+        }
+
+        for (int i = 0; i < students; i++) {
+            ArrayList<Student> partners = new ArrayList<Student>(choiceCounts[i]);
+            for (int c = 0; c < choiceCounts[i]; c++) {
+                partners.add(byPosition[choices[i][c]]);
+            }
+            byPosition[i].setPartners(partners);
+        }
+
+        return roster;
+    }
+
+    /**
+     * add
+     * This method adds a choice if the student has room for it and did not make it already
+     * @return A boolean representing if the choice was added
+     */
+    private static boolean add(int[][] choices, int[] choiceCounts, int i, int j) {
+
+        if (choiceCounts[i] == choices[i].length) {
+            return false;
+        }
+        for (int c = 0; c < choiceCounts[i]; c++) {
+            if (choices[i][c] == j) {
+                return false;
+            }
+        }
+        choices[i][choiceCounts[i]++] = j;
+        return true;
+    }
+
+    /**
+     * main
+     * Writes a generated roster to a roster file that BatchSeating can read.
+     * Usage: java RosterGenerator <students> <seed> <output file>
+     */
+    public static void main(String[] args) {
+
+        if (args.length != 3) {
+            System.err.println("Usage: java RosterGenerator <students> <seed> <output file>");
+            System.exit(2);
+        }
+
+        try {
+            ArrayList<Student> roster = new RosterGenerator(Long.parseLong(args[1])).generate(Integer.parseInt(args[0]));
+            RosterFile.write(Paths.get(args[2]), roster);
+        } catch (IOException | NumberFormatException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
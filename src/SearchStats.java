@@ -0,0 +1,246 @@
+/**
+ * SearchStats.java
+ * Version 1
+ * This class counts the work done by one search of a SeatingStrategy, and passes the search's progress on
+ * to the SeatingProgress of the run, if there is one. It also knows the happiness bound of the run: once any
+ * restart finds an arrangement that reaches it, nothing can beat that arrangement and every restart stops.
+ * The counts are passed on to the run's SeatingMetrics in batches, so the search loop only touches this object.
+ * A run can also ask its restarts to stop on a plateau: once a restart has gone a number of sweeps without finding a
+ * better arrangement, it stops and keeps its best one. Each strategy sets how many of its iterations make a sweep,
+ * about one look at its whole neighbourhood, so the plateau doesn't depend on the roster size.
+ */
+
+//Imports
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class SearchStats {
+
+    private final SeatingProgress progress;
+
+    //Upper bound on total happiness, and whether a restart of the run has reached it (shared by all restarts)
+    private final int bound;
+    private final AtomicBoolean boundReached;
+
+    //Counters of the run shown through JMX (or null), the place of this restart among them, and the arrangement
+    //the restart is searching, whose total happiness is passed on with every batch
+    private final SeatingMetrics.Run metrics;
+    private final int restart;
+    private SeatingState state;
+
+    //Sweeps without a better arrangement after which the restart stops (0 for no plateau), the iterations that
+    //makes with the strategy's sweep length, and the iteration of the last better arrangement
+    private final int plateauSweeps;
+    private int plateauIterations;
+    private int lastImprovement;
+
+    //Iterations between two batches passed on to the metrics; a power of 2
+    private static final int METRICS_BATCH = 1024;
+
+    private int iterations;
+    private int swaps;
+    private long evaluations;
+
+    //Counts already passed on to the metrics
+    private int reportedIterations;
+    private int reportedSwaps;
+    private long reportedEvaluations;
+
+    //Flight recorder event of the current batch, and the best total happiness before and during it
+    private SeatingEvents.EvaluationBatch batch;
+    private int batchStartHappiness = Integer.MIN_VALUE;
+    private int bestHappiness = Integer.MIN_VALUE;
+
+    SearchStats() {
+        this(null);
+    }
+
+    SearchStats(SeatingProgress progress) {
+        this(progress, Integer.MAX_VALUE, new AtomicBoolean(), 0, null);
+    }
+
+    /**
+     * SearchStats
+     * This constructor creates the stats of one restart of a run
+     * @param //The SeatingProgress of the run (or null), an integer representing the happiness bound, the
+     * flag shared by the restarts of the run that is set when one of them reaches the bound, an integer representing
+     * the sweeps without improvement after which the restart stops (0 to search until the time runs out), and the
+     * metrics of the run (or null)
+     */
+    SearchStats(SeatingProgress progress, int bound, AtomicBoolean boundReached, int plateauSweeps, SeatingMetrics.Run metrics) {
+        if (plateauSweeps < 0) {
+            throw new IllegalArgumentException("Plateau sweeps can't be negative");
+        }
+        this.progress = progress;
+        this.bound = bound;
+        this.boundReached = boundReached;
+        this.plateauSweeps = plateauSweeps;
+        this.metrics = metrics;
+        this.restart = metrics == null ? 0 : metrics.startRestart();
+        this.batch = new SeatingEvents.EvaluationBatch();
+        this.batch.begin();
+    }
+
+    /**
+     * addIteration
+     * This method counts one iteration of the search loop
+     */
+    void addIteration() {
+        iterations++;
+        if ((iterations & (METRICS_BATCH - 1)) == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * setSweepLength
+     * This method is called by a strategy before it searches, with the amount of its iterations that make a sweep
+     * @param //An integer representing the iterations of one sweep
+     */
+    void setSweepLength(int iterations) {
+        plateauIterations = (int) Math.min(Integer.MAX_VALUE, (long) plateauSweeps * Math.max(1, iterations));
+    }
+
+    /**
+     * addEvaluations
+     * This method counts candidate swaps whose happiness change was calculated
+     * @param //An integer representing the amount of candidate swaps
+     */
+    void addEvaluations(int count) {
+        evaluations += count;
+    }
+
+    /**
+     * watch
+     * This method is called by the seating system with the arrangement the restart searches, before the search
+     * @param //A SeatingState representing the arrangement
+     */
+    void watch(SeatingState state) {
+        this.state = state;
+    }
+
+    /**
+     * flush
+     * This method passes the counts since the last batch and the total happiness of the arrangement being searched on
+     * to the metrics and the flight recorder, and lets the progress report an improvement it held back
+     */
+    void flush() {
+        if (metrics != null) {
+            metrics.add(iterations - reportedIterations, evaluations - reportedEvaluations, swaps - reportedSwaps, restart, state == null ? 0 : state.getTotalHappiness());
+        }
+
+        if (batch.shouldCommit()) {
+            batch.iterations = iterations - reportedIterations;
+            batch.evaluations = evaluations - reportedEvaluations;
+            batch.swaps = swaps - reportedSwaps;
+            batch.gain = bestHappiness - batchStartHappiness;
+            batch.commit();
+        }
+        batch = new SeatingEvents.EvaluationBatch();
+        batch.begin();
+        batchStartHappiness = bestHappiness;
+
+        reportedIterations = iterations;
+        reportedSwaps = swaps;
+        reportedEvaluations = evaluations;
+
+        if (progress != null) {
+            progress.reportPending();
+        }
+    }
+
+    /**
+     * finish
+     * This method is called by the seating system with the arrangement the search returned; it passes the last batch
+     * on, and the arrangement's standard deviation, so the metrics have one before the whole run finishes
+     * @param //A SeatingState representing the arrangement
+     */
+    void finish(SeatingState state) {
+        this.state = state;
+        flush();
+        if (metrics != null) {
+            ArrayList<Integer> happiness = new ArrayList<Integer>();
+            int totalHappiness = SeatingAssignmentSystem.totalHappiness(state, happiness);
+            int students = state.getGraph().size();
+            metrics.restartFinished(totalHappiness, SeatingAssignmentSystem.deviationHappiness(happiness, ((double) totalHappiness) / students, students));
+        }
+    }
+
+    /**
+     * addSwap
+     * This method counts one swap that was performed
+     */
+    void addSwap() {
+        swaps++;
+    }
+
+    /**
+     * improved
+     * This method is called by a strategy whenever it finds its best arrangement so far
+     * @param //A SeatingState representing the arrangement
+     */
+    void improved(SeatingState state) {
+        if (bestHappiness == Integer.MIN_VALUE) {
+            batchStartHappiness = state.getTotalHappiness();
+        }
+        bestHappiness = Math.max(bestHappiness, state.getTotalHappiness());
+        lastImprovement = iterations;
+        if (state.getTotalHappiness() >= bound) {
+            boundReached.set(true);
+        }
+        if (metrics != null) {
+            metrics.improved(restart, state.getTotalHappiness());
+        }
+        if (progress != null) {
+            progress.improved(state);
+        }
+    }
+
+    /**
+     * shouldStop
+     * This method checks if the run this search belongs to was cancelled or has reached the happiness bound, or
+     * if this search has reached its plateau
+     * @return A boolean representing if the search should stop
+     */
+    boolean shouldStop() {
+        return isOnPlateau() || boundReached.get() || (progress != null && progress.isCancelled());
+    }
+
+    /**
+     * isOnPlateau
+     * This method checks if the search has gone the run's amount of sweeps without finding a better arrangement
+     * @return A boolean representing if the search is on a plateau, always false when the run has no plateau
+     */
+    boolean isOnPlateau() {
+        return plateauIterations > 0 && iterations - lastImprovement >= plateauIterations;
+    }
+
+    /**
+     * hasPlateau
+     * @return A boolean representing if the run stops its restarts on a plateau, in which case strategies don't
+     * need a cap of their own on the amount of iterations
+     */
+    boolean hasPlateau() {
+        return plateauSweeps > 0;
+    }
+
+    /**
+     * isBoundReached
+     * @return A boolean representing if a restart of the run found an arrangement as happy as the bound allows
+     */
+    boolean isBoundReached() {
+        return boundReached.get();
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getSwaps() {
+        return swaps;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+}
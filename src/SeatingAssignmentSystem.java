@@ -9,15 +9,22 @@
 //Imports
 import java.util.ArrayList;
 import java.util.Scanner;
-import java.util.Collections;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 class SeatingAssignmentSystem {
 
     //Global Variables
-    private static ArrayList<Student> students;
-    private static ArrayList<Table> tables;
-    private static ArrayList<Integer> happiness;
-    private static final int TIME_LIMIT = 30;
+    //Seconds a run may take when no deadline is given
+    static final int TIME_LIMIT = 30;
+    private static final int REPAIR_ROUNDS = 3;
+
+    //Run statistics are printed to the console only when the JVM is started with -Dseating.verbose=true;
+    //they are always available through the SeatingMetrics MBean
+    private static final boolean VERBOSE = Boolean.getBoolean("seating.verbose");
 
     /**
      * assignTables
@@ -29,152 +36,259 @@ class SeatingAssignmentSystem {
      * the final arrangement of students for the event.
      */
     public static ArrayList<Table> assignTables(ArrayList<Student> inputStudents, int maxTables, int tableSize) {
+        return assignTables(inputStudents, maxTables, tableSize, new HillClimbingStrategy(), 1, 1);
+    }
 
-        tables = new ArrayList<Table>();
-
-        //Create tables
-        for (int i = 0; i < maxTables; i++) {
-            tables.add(new Table(tableSize));
-        }
-
-        students = inputStudents;
-
-        //Randomize student order
-        Collections.shuffle(students);
-
-
-        int studentIndex = 0;
-        int tableSpots = maxTables*tableSize;
-
-        //Fill tables first
-        for(Table table:tables) {
-
-            while( (!table.isFull()) && (studentIndex < students.size())) {
-                System.out.println("index: " + studentIndex);
-                System.out.println(students.size());
-                System.out.println(students.get(studentIndex).getName());
-                table.addStudent(students.get(studentIndex));
-                studentIndex++;
-            }
-        }
-
-        int oldTotalHappiness = totalHappiness();
-        double oldMeanHappiness = ((double)oldTotalHappiness)/students.size();
-        double oldDeviationHappiness = deviationHappiness(oldMeanHappiness);
+    /**
+     * assignTables
+     * This method assigns the students to tables like assignTables above, using the given search engine
+     * @param //An arraylist of students representing the students that signed up, 2 integers representing
+     * the maximum amount of tables and table capacity, and the SeatingStrategy used to improve the arrangement.
+     * @return An arraylist of tables representing the final arrangement of students for the event.
+     */
+    public static ArrayList<Table> assignTables(ArrayList<Student> inputStudents, int maxTables, int tableSize, SeatingStrategy strategy) {
+        return assignTables(inputStudents, maxTables, tableSize, strategy, 1, 1);
+    }
 
-        //Print starting arrangement and total, mean, and deviation happiness
-        System.out.println();
-        System.out.println("Starting Arrangement: ");
-        System.out.println(tables);
-        System.out.println();
-        System.out.println("Beginning Total Happiness: "+oldTotalHappiness);
-        System.out.println("Beginning Mean Happiness: "+oldMeanHappiness);
-        System.out.println("Beginning Standard Deviation Happiness "+oldDeviationHappiness);
-        System.out.println();
+    /**
+     * assignTables
+     * This method assigns the students to tables like assignTables above, but runs several independent
+     * restarts, each from a different random order, on a pool of worker threads. The time limit is shared
+     * across all restarts, and the arrangement with the best total happiness is returned.
+     * @param //An arraylist of students representing the students that signed up, 2 integers representing
+     * the maximum amount of tables and the table capacity, the SeatingStrategy every restart uses, and 2 integers
+     * representing the amount of worker threads and the amount of restarts.
+     * @return An arraylist of tables representing the best arrangement found by any restart.
+     */
+    public static ArrayList<Table> assignTables(ArrayList<Student> inputStudents, int maxTables, int tableSize, SeatingStrategy strategy, int workers, int restarts) {
+        return assignTables(inputStudents, maxTables, tableSize, strategy, workers, restarts, null);
+    }
 
-        int swaps=  0;
-        int iterations = 0;
-        int totalHappiness = 0;
-        int maxHappinessIncrease = 0;
-        double startTime = System.nanoTime()/1000000000.0;
-        double currentTime = startTime;
-        double meanHappiness = 0;
-        double deviationHappiness = 0;
-        Student swapStudent1 = new Student("","");
-        Student swapStudent2 = new Student("","");
-        Table swapTable1 = new Table(0);
-        Table swapTable2 = new Table(0);
-        happiness = new ArrayList<Integer>();
+    /**
+     * assignTables
+     * This method assigns the students to tables like assignTables above, and reports its progress while it runs.
+     * It can be called from any thread; the given list of students is only read.
+     * @param //An arraylist of students representing the students that signed up, 2 integers representing
+     * the maximum amount of tables and the table capacity, the SeatingStrategy every restart uses, 2 integers
+     * representing the amount of worker threads and the amount of restarts, and the SeatingProgress that
+     * receives improved arrangements and can cancel the run (or null).
+     * @return An arraylist of tables representing the best arrangement found, also when the run was cancelled.
+     */
+    public static ArrayList<Table> assignTables(ArrayList<Student> students, int maxTables, int tableSize, SeatingStrategy strategy, int workers, int restarts, SeatingProgress progress) {
+        return assignTables(students, maxTables, tableSize, new RandomArrangement(), strategy, workers, restarts, progress);
+    }
 
-        //If there is only 1 table, configuration doesn't matter
-        if(tables.size() == 1) {
-            System.out.println(tables.get(0).getStudents().size());
-            return tables;
-        }
+    /**
+     * assignTables
+     * This method assigns the students to tables like assignTables above, starting every restart from the given
+     * initial arrangement instead of a random one.
+     * @param //An arraylist of students representing the students that signed up, 2 integers representing
+     * the maximum amount of tables and the table capacity, the InitialArrangement every restart starts from, the
+     * SeatingStrategy every restart uses, 2 integers representing the amount of worker threads and the amount of
+     * restarts, and the SeatingProgress that receives improved arrangements and can cancel the run (or null).
+     * @return An arraylist of tables representing the best arrangement found, also when the run was cancelled.
+     */
+    public static ArrayList<Table> assignTables(ArrayList<Student> students, int maxTables, int tableSize, InitialArrangement start, SeatingStrategy strategy, int workers, int restarts, SeatingProgress progress) {
+        return assignTables(students, maxTables, tableSize, start, strategy, workers, restarts, newSeed(), progress);
+    }
 
-        //While loop that check 2 tables every time and find the best swap for those 2 tables
-        //Terminates if runtime exceeds time limit or if it loops a certain amount of iterations, which is based on the student amount, allowing it to terminate earlier.
-        do {
+    /**
+     * assignTables
+     * This method assigns the students to tables like assignTables above, with every random choice drawn from the
+     * given seed. Each restart gets its own generator split from the seed, so no generator is shared between
+     * workers. A run with the same roster, settings and seed repeats exactly, as long as no restart is cut short
+     * by the time limit, a cancel or another restart reaching the happiness bound. The run gets the default time
+     * limit and no plateau.
+     * @param //An arraylist of students representing the students that signed up, 2 integers representing
+     * the maximum amount of tables and the table capacity, the InitialArrangement every restart starts from, the
+     * SeatingStrategy every restart uses, 2 integers representing the amount of worker threads and the amount of
+     * restarts, a long representing the seed, and the SeatingProgress that receives improved arrangements and can
+     * cancel the run (or null).
+     * @return An arraylist of tables representing the best arrangement found, also when the run was cancelled.
+     */
+    public static ArrayList<Table> assignTables(ArrayList<Student> students, int maxTables, int tableSize, InitialArrangement start, SeatingStrategy strategy, int workers, int restarts, long seed, SeatingProgress progress) {
+        return assignTables(students, maxTables, tableSize, start, strategy, workers, restarts, seed, System.nanoTime() + TIME_LIMIT * 1000000000L, 0, progress);
+    }
 
-            maxHappinessIncrease = 0;
-            int tableIndex1 = (int)(Math.random()*tables.size());
-            int tableIndex2 = (int)(Math.random()*tables.size());
+    /**
+     * assignTables
+     * This method assigns the students to tables like assignTables above, until the given deadline. Each restart
+     * gets an equal share of the time the workers have until the deadline, and with a plateau a restart also stops
+     * once it has gone that many sweeps without finding a better arrangement, instead of searching out its share.
+     * A sweep is about one look at every student. The best arrangement so far is reported to the progress while
+     * the run searches (see AnytimeSeating).
+     * @param //An arraylist of students representing the students that signed up, 2 integers representing
+     * the maximum amount of tables and the table capacity, the InitialArrangement every restart starts from, the
+     * SeatingStrategy every restart uses, 2 integers representing the amount of worker threads and the amount of
+     * restarts, a long representing the seed, a long representing the System.nanoTime() at which the run must
+     * stop, an integer representing the sweeps without improvement after which a restart stops (0 for no plateau),
+     * and the SeatingProgress that receives improved arrangements and can cancel the run (or null).
+     * @return An arraylist of tables representing the best arrangement found, also when the run was cancelled.
+     */
+    public static ArrayList<Table> assignTables(ArrayList<Student> students, int maxTables, int tableSize, InitialArrangement start, SeatingStrategy strategy, int workers, int restarts, long seed, long deadline, int plateauSweeps, SeatingProgress progress) {
+        return assignTables(students, maxTables, tableSize, new SeatingConstraints(), start, strategy, workers, restarts, seed, deadline, plateauSweeps, progress);
+    }
 
-            //Find 2 random tables that are different
-            while(tableIndex1 == tableIndex2) {
-                tableIndex2 = (int)(Math.random()*tables.size());
-            }
+    /**
+     * assignTables
+     * This method assigns the students to tables like assignTables above, seating students with accommodations only
+     * at tables that serve them. Students who need step-free access sit at step-free tables and no table gets more
+     * special diets than its cap. These are hard constraints: the starting arrangements seat these students first
+     * and the strategies never try a swap that breaks them. A student who can't be served at any table with a free
+     * seat is left unseated.
+     * @param //An arraylist of students representing the students that signed up, 2 integers representing
+     * the maximum amount of tables and the table capacity, the SeatingConstraints of the tables, the
+     * InitialArrangement every restart starts from, the SeatingStrategy every restart uses, 2 integers representing
+     * the amount of worker threads and the amount of restarts, a long representing the seed, a long representing the
+     * System.nanoTime() at which the run must stop, an integer representing the sweeps without improvement after
+     * which a restart stops (0 for no plateau), and the SeatingProgress that receives improved arrangements and can
+     * cancel the run (or null).
+     * @return An arraylist of tables representing the best arrangement found, also when the run was cancelled.
+     */
+    public static ArrayList<Table> assignTables(ArrayList<Student> students, int maxTables, int tableSize, SeatingConstraints constraints, InitialArrangement start, SeatingStrategy strategy, int workers, int restarts, long seed, long deadline, int plateauSweeps, SeatingProgress progress) {
+        return assignTables(students, maxTables, tableSize, PartnerGraph.UNWEIGHTED, constraints, start, strategy, workers, restarts, seed, deadline, plateauSweeps, progress);
+    }
 
-            //Declare the tables that will be checked
-            Table table1 = tables.get(tableIndex1);
-            Table table2 = tables.get(tableIndex2);
-            ArrayList<Student> table1Students = table1.getStudents();
-            ArrayList<Student> table2Students = table2.getStudents();
+    /**
+     * assignTables
+     * This method assigns the students to tables like assignTables above, weighting every partner by their rank in
+     * the student's list. A student's happiness is the summed weight of the partners at their table, so with weights
+     * 3,2,1 a student would rather sit with Partner 1 than with Partner 2 and 3 together at another table.
+     * @param //An arraylist of students representing the students that signed up, 2 integers representing
+     * the maximum amount of tables and the table capacity, an array of integers representing the weight of Partner 1,
+     * Partner 2, ... (partners past its end get the last weight), the SeatingConstraints of the tables, the
+     * InitialArrangement every restart starts from, the SeatingStrategy every restart uses, 2 integers representing
+     * the amount of worker threads and the amount of restarts, a long representing the seed, a long representing the
+     * System.nanoTime() at which the run must stop, an integer representing the sweeps without improvement after
+     * which a restart stops (0 for no plateau), and the SeatingProgress that receives improved arrangements and can
+     * cancel the run (or null).
+     * @return An arraylist of tables representing the best arrangement found, also when the run was cancelled.
+     */
+    public static ArrayList<Table> assignTables(ArrayList<Student> students, int maxTables, int tableSize, int[] rankWeights, SeatingConstraints constraints, InitialArrangement start, SeatingStrategy strategy, int workers, int restarts, long seed, long deadline, int plateauSweeps, SeatingProgress progress) {
 
-            //Loop though the students of the first table
-            for(int a=0; a<table1Students.size(); a++) {
+        workers = Math.max(1, workers);
+        restarts = Math.max(1, restarts);
 
-                Student student1 = table1Students.get(a);
+        SeatingEvents.Run runEvent = new SeatingEvents.Run();
+        runEvent.begin();
 
-                //Loop through the students of the second table
-                for(int b=0; b<table2Students.size(); b++) {
+        //Compile the roster and its constraints once; every restart searches its own arrangement of the same graph
+        PartnerGraph graph = PartnerGraph.compile(students, rankWeights);
+        SeatingConstraints.Rules rules = constraints.compile(graph, maxTables, tableSize);
 
-                    Student student2 = table2Students.get(b);
-                    int oldMaxHappinessIncrease = maxHappinessIncrease;
+        //No arrangement can beat the bound, so the run stops as soon as any restart reaches it
+        int bound = graph.happinessBound(maxTables, tableSize);
+        AtomicBoolean boundReached = new AtomicBoolean();
+        SeatingMetrics.Run metrics = SeatingMetrics.startRun(students.size(), seed, bound, restarts);
 
-                    maxHappinessIncrease = Math.max(oldMaxHappinessIncrease,happinessChange(student1,student2,table1,table2));
+        //Each restart gets an equal share of the total time the workers have together until the deadline
+        long startTime = System.nanoTime();
+        long budget = (long) (Math.max(0, deadline - startTime) * (double) workers / restarts);
 
-                    //If this swap increases total happiness more than the current best swap
-                    if(maxHappinessIncrease > oldMaxHappinessIncrease) {
+        //Split one generator per restart here, in restart order, so the streams don't depend on the scheduling
+        SplittableRandom seeds = new SplittableRandom(seed);
+        Restart[] runs = new Restart[restarts];
+        for (int i = 0; i < restarts; i++) {
+            runs[i] = new Restart(graph, rules, maxTables, tableSize, start, strategy, seeds.split(), budget, deadline, new SearchStats(progress, bound, boundReached, plateauSweeps, metrics));
+        }
 
-                        //Store the student and table object for the optimal swap
-                        swapStudent1 = student1;
-                        swapStudent2 = student2;
-                        swapTable1 = table1;
-                        swapTable2 = table2;
+        if (workers == 1 && restarts == 1) {
+            runs[0].invoke();
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(runs);
                     }
-                }
+                });
+            } finally {
+                pool.shutdown();
             }
+        }
 
-            //If the best swap increases total happiness
-            if(maxHappinessIncrease > 0) {
+        //An improvement held back by the report interval is reported before the run returns
+        if (progress != null) {
+            progress.finish();
+        }
 
-                //Add 1 to the total amount of swaps
-                swaps++;
+        //Keep the restart with the best total happiness
+        Restart best = runs[0];
+        int swaps = 0;
+        int iterations = 0;
+        for (Restart run : runs) {
+            swaps += run.stats.getSwaps();
+            iterations += run.stats.getIterations();
+            if (run.getRawResult().getTotalHappiness() > best.getRawResult().getTotalHappiness()) {
+                best = run;
+            }
+        }
+        SeatingState state = best.getRawResult();
 
-                //Increase total happiness by the required amount
-                totalHappiness += maxHappinessIncrease;
+        //Calculate ending total, mean, and deviation happiness.
+        SeatingEvents.Statistics statisticsEvent = new SeatingEvents.Statistics();
+        statisticsEvent.begin();
+        ArrayList<Integer> happiness = new ArrayList<Integer>();
+        int totalHappiness = totalHappiness(state, happiness);
+        double meanHappiness = ((double)totalHappiness)/students.size();
+        double deviationHappiness = deviationHappiness(happiness, meanHappiness, students.size());
+        metrics.finish(totalHappiness, deviationHappiness);
+
+        if (statisticsEvent.shouldCommit()) {
+            statisticsEvent.students = students.size();
+            statisticsEvent.tables = maxTables;
+            statisticsEvent.totalHappiness = totalHappiness;
+            statisticsEvent.deviation = deviationHappiness;
+            statisticsEvent.commit();
+        }
 
-                //Perform the swap
-                swapTable1.getStudents().add(swapStudent2);
-                swapTable1.getStudents().remove(swapStudent1);
-                swapTable2.getStudents().add(swapStudent1);
-                swapTable2.getStudents().remove(swapStudent2);
-            }
+        //Copy the final arrangement into table objects
+        ArrayList<Table> tables = state.toTables();
+
+        if (runEvent.shouldCommit()) {
+            runEvent.students = students.size();
+            runEvent.tables = maxTables;
+            runEvent.tableSize = tableSize;
+            runEvent.restarts = restarts;
+            runEvent.workers = workers;
+            runEvent.seed = seed;
+            runEvent.totalHappiness = totalHappiness;
+            runEvent.bound = bound;
+            runEvent.commit();
+        }
 
-            //Store current time
-            currentTime = System.nanoTime()/1000000000;
+        //If there is only 1 table, configuration doesn't matter
+        if(maxTables <= 1 || !VERBOSE) {
+            return tables;
+        }
 
-            //Add 1 to the total amount of iterations of the while loop
-            iterations++;
+        int oldTotalHappiness = best.startHappiness;
+        double oldMeanHappiness = ((double)oldTotalHappiness)/students.size();
 
-        } while((currentTime-startTime < TIME_LIMIT) && (iterations < Math.pow(students.size(),1.75)+1000));
+        //Print the starting total and mean happiness of the best restart
+        System.out.println();
+        System.out.println("Beginning Total Happiness: "+oldTotalHappiness);
+        System.out.println("Beginning Mean Happiness: "+oldMeanHappiness);
+        System.out.println();
 
         //Print algorithm runtime statistics
-        System.out.println("Time elapsed: "+(System.nanoTime()/1000000000.0-startTime)+"s");
+        System.out.println("Time elapsed: "+((System.nanoTime()-startTime)/1000000000.0)+"s");
+        System.out.println("Restarts: "+restarts+" on "+workers+" workers");
+        System.out.println("Seed: "+seed);
         System.out.println("Swaps: "+swaps);
         System.out.println("Iterations: "+iterations);
-
-        //Calculate ending total, mean, and deviation happiness.
-        totalHappiness = totalHappiness();
-        meanHappiness = ((double)totalHappiness)/students.size();
-        deviationHappiness = deviationHappiness(meanHappiness);
+        if (best.stats.isBoundReached()) {
+            System.out.println("Stopped early: reached the happiness bound");
+        }
 
         //Print ending totals and % improvement in mean happiness
         System.out.println("Total Happiness: "+totalHappiness);
         System.out.println("Mean Happiness: "+meanHappiness);
         System.out.println("Standard Deviation of Happiness: "+deviationHappiness);
         System.out.println("% improvement of mean happiness: "+((meanHappiness-oldMeanHappiness)/oldMeanHappiness)*100+"%");
+        System.out.println("Happiness bound: "+bound);
+        System.out.println("Gap to bound: "+(bound-totalHappiness)+" ("+gapPercent(totalHappiness, bound)+"%)");
 
         //Print student arrangements and tables: used for debugging
         System.out.println();
@@ -186,144 +300,382 @@ class SeatingAssignmentSystem {
     }
 
     /**
-     * totalHappiness
-     * This method computes the total happiness of the students given their current arrangement
-     * @return An integer representing the current total happiness
+     * insertStudents
+     * This method seats students who signed up after the current arrangement was made, without solving again.
+     * Each new student takes the free seat with the most of their partners, and then only the tables that
+     * changed are repaired, with improving swaps against the tables where their partners sit.
+     * @param //An arraylist of tables representing the current arrangement, an arraylist of students representing
+     * all the students that signed up, and 2 integers representing the maximum amount of tables and table capacity.
+     * @return A new arraylist of tables with everyone seated, or a new arrangement if the amount of tables changed.
+     * The current tables are not changed, so they can still be drawn while this runs on another thread.
      */
-    private static int totalHappiness(){
+    public static ArrayList<Table> insertStudents(ArrayList<Table> current, ArrayList<Student> inputStudents, int maxTables, int tableSize) {
+        return insertStudents(current, inputStudents, maxTables, tableSize, new SeatingConstraints());
+    }
 
-        int totalHappiness = 0;
-        happiness = new ArrayList<Integer>();
+    /**
+     * insertStudents
+     * This method seats new students like insertStudents above, only at seats that serve their accommodations.
+     * @param //An arraylist of tables representing the current arrangement, an arraylist of students representing
+     * all the students that signed up, 2 integers representing the maximum amount of tables and table capacity, and
+     * the SeatingConstraints of the tables.
+     * @return A new arraylist of tables with everyone seated who can be served, or a new arrangement if the amount
+     * of tables changed.
+     */
+    public static ArrayList<Table> insertStudents(ArrayList<Table> current, ArrayList<Student> inputStudents, int maxTables, int tableSize, SeatingConstraints constraints) {
+        return insertStudents(current, inputStudents, maxTables, tableSize, PartnerGraph.UNWEIGHTED, constraints);
+    }
 
-        //Loop through all tables
-        for(Table table:tables) {
+    /**
+     * insertStudents
+     * This method seats new students like insertStudents above, weighting every partner by their rank.
+     * @param //An arraylist of tables representing the current arrangement, an arraylist of students representing
+     * all the students that signed up, 2 integers representing the maximum amount of tables and table capacity, an
+     * array of integers representing the weight of Partner 1, Partner 2, ..., and the SeatingConstraints of the tables.
+     * @return A new arraylist of tables with everyone seated who can be served, or a new arrangement if the amount
+     * of tables changed.
+     */
+    public static ArrayList<Table> insertStudents(ArrayList<Table> current, ArrayList<Student> inputStudents, int maxTables, int tableSize, int[] rankWeights, SeatingConstraints constraints) {
 
-            ArrayList<Student>tableStudents = table.getStudents();
+        if (current.size() != maxTables) {
+            return assignTables(inputStudents, maxTables, tableSize, rankWeights, constraints, new RandomArrangement(), new HillClimbingStrategy(), 1, 1, newSeed(), System.nanoTime() + TIME_LIMIT * 1000000000L, 0, null);
+        }
 
-            //Loop through students in current table
-            for(Student s : tableStudents) {
+        PartnerGraph graph = PartnerGraph.compile(inputStudents, rankWeights);
+        SeatingState state = new SeatingState(graph, constraints.compile(graph, maxTables, tableSize), maxTables, tableSize);
 
-                int studentHappiness = 0;
-                ArrayList<Student> partners = s.getPartners();
+        //Keep everyone who is already seated at their table, as long as it still serves them
+        for (int t = 0; t < maxTables; t++) {
+            for (Student student : current.get(t).getStudents()) {
+                int s = graph.indexOf(student);
+                if (s >= 0 && state.getSeat(s) < 0 && !state.isFull(t) && state.canSeat(s, t)) {
+                    state.seatStudent(s, t);
+                }
+            }
+        }
 
-                //System.out.println(partners.size());
+        boolean[] affected = new boolean[maxTables];
+        int[] changedTables = new int[maxTables];
+        int changed = 0;
+        int inserted = 0;
 
-                if (partners != null) {
+        //Seat every new student at the free seat with the most partner links
+        for (int s = 0; s < graph.size(); s++) {
 
-                    //Loop through the current student's partners
-                    for (Student p : partners) {
+            if (state.getSeat(s) >= 0) {
+                continue;
+            }
 
-                        //If the current table, which the student sits at, also contains this partner
-                        if (table.containsStudent(p)) {
+            int table = bestFreeTable(state, s);
 
-                            totalHappiness++;
-                            studentHappiness++;
-                        }
-                    }
+            if (table >= 0) {
+                state.seatStudent(s, table);
+                inserted++;
 
+                if (!affected[table]) {
+                    affected[table] = true;
+                    changedTables[changed++] = table;
                 }
+            }
+        }
 
-                //Add each student's happiness to an array list, in order to compute deviation later
-                happiness.add(studentHappiness);
+        int swaps = repair(state, changedTables, changed);
+
+        if (VERBOSE) {
+            System.out.println("Inserted: "+inserted+" students at "+changed+" tables");
+            System.out.println("Repair swaps: "+swaps);
+            System.out.println("Total Happiness: "+state.getTotalHappiness());
+        }
+
+        return state.toTables();
+    }
+
+    /**
+     * bestFreeTable
+     * This method finds the table with a free seat that serves a student and has the most partner links to them.
+     * Only the tables of the student's partners are compared, so the cost follows the student's partner count.
+     * @param //A SeatingState representing the arrangement, and an integer representing the student id
+     * @return An integer representing the table id, or -1 if every table that serves the student is full
+     */
+    private static int bestFreeTable(SeatingState state, int s) {
+
+        PartnerGraph graph = state.getGraph();
+        int bestTable = -1;
+        int bestLinks = 0;
+
+        for (int i = graph.partnerStart(s); i < graph.partnerEnd(s); i++) {
+            int t = state.getSeat(graph.partner(i));
+            if (t >= 0 && !state.isFull(t) && state.canSeat(s, t) && state.links(s, t) > bestLinks) {
+                bestTable = t;
+                bestLinks = state.links(s, t);
             }
         }
-        return totalHappiness;
+        for (int i = graph.chooserStart(s); i < graph.chooserEnd(s); i++) {
+            int t = state.getSeat(graph.chooser(i));
+            if (t >= 0 && !state.isFull(t) && state.canSeat(s, t) && state.links(s, t) > bestLinks) {
+                bestTable = t;
+                bestLinks = state.links(s, t);
+            }
+        }
+
+        //No partner has a free seat next to them, so take the emptiest table
+        if (bestTable < 0) {
+            for (int t = 0; t < state.getNumTables(); t++) {
+                if (!state.isFull(t) && state.canSeat(s, t) && (bestTable < 0 || state.getTableCount(t) < state.getTableCount(bestTable))) {
+                    bestTable = t;
+                }
+            }
+        }
+        return bestTable;
     }
 
     /**
-     * happinessChange
-     * This method calculates the change in happiness of a swap compared to the previous arrangement
-     * Student 1 currently sits at table 1, whereas student 2 currently sits at table 2. This is before the swap.
-     * @param //2 students, representing the candidates to be swapped, and 2 tables, representing the tables of these 2 students
-     * @return An integer, representing the change in happiness after this swap occurs, +ve if happiness increases and -ve if it decreases
+     * repair
+     * This method improves the arrangement around the given tables. Each table is paired with every table
+     * where a partner of one of its students sits, and the best improving swap between them is performed,
+     * until no swap helps or a few rounds have passed.
+     * @param //A SeatingState representing the arrangement, an array of integers holding the ids of the tables
+     * to repair, and an integer representing how many of them are used
+     * @return An integer representing the amount of swaps performed
      */
-    private static int happinessChange(Student student1, Student student2, Table table1, Table table2){
+    private static int repair(SeatingState state, int[] changedTables, int changed) {
+
+        PartnerGraph graph = state.getGraph();
+        int[] visited = new int[state.getNumTables()];
+        int stamp = 0;
+        int swaps = 0;
+
+        for (int round = 1; round <= REPAIR_ROUNDS; round++) {
 
-        int happinessChange = 0;
-        ArrayList<Student>tableStudents = table1.getStudents();
+            boolean improved = false;
 
-        //Loop through students of first table
-        for(Student student: tableStudents) {
+            for (int c = 0; c < changed; c++) {
 
-            ArrayList<Student> partners = student.getPartners();
+                int table1 = changedTables[c];
+                visited[table1] = ++stamp;
 
-            //If this student sitting at table1 has student 1 as a partner, decrease happiness as student 1 will leave
-            //If this student sitting at table1 has student 2 as a partner, increase happiness as student 2 will enter
-            if(partners.contains(student1)) {
+                //Pair the table with every table holding a partner of one of its students
+                for (int a = 0; a < state.getTableCount(table1); a++) {
 
-                happinessChange--;
-            } else if((partners.contains(student2)) && (!student.equals(student1))) {
+                    int s = state.getStudentAt(table1, a);
+
+                    for (int i = graph.partnerStart(s); i < graph.partnerEnd(s); i++) {
+                        int table2 = state.getSeat(graph.partner(i));
+                        if (table2 >= 0 && visited[table2] != stamp) {
+                            visited[table2] = stamp;
+                            if (bestSwap(state, table1, table2)) {
+                                swaps++;
+                                improved = true;
+                            }
+                        }
+                    }
+                    for (int i = graph.chooserStart(s); i < graph.chooserEnd(s); i++) {
+                        int table2 = state.getSeat(graph.chooser(i));
+                        if (table2 >= 0 && visited[table2] != stamp) {
+                            visited[table2] = stamp;
+                            if (bestSwap(state, table1, table2)) {
+                                swaps++;
+                                improved = true;
+                            }
+                        }
+                    }
+                }
+            }
 
-                happinessChange++;
+            if (!improved) {
+                break;
             }
         }
+        return swaps;
+    }
+
+    /**
+     * bestSwap
+     * This method performs the swap between 2 tables that increases total happiness the most, if there is one
+     * @param //A SeatingState representing the arrangement, and 2 integers representing the table ids
+     * @return A boolean representing if a swap was performed
+     */
+    private static boolean bestSwap(SeatingState state, int table1, int table2) {
 
-        tableStudents = table2.getStudents();
+        int maxHappinessIncrease = 0;
+        int swapStudent1 = -1;
+        int swapStudent2 = -1;
 
-        //Loop through students of second table
-        for(Student student: tableStudents) {
+        for (int a = 0; a < state.getTableCount(table1); a++) {
 
-            ArrayList<Student> partners = student.getPartners();
+            int student1 = state.getStudentAt(table1, a);
 
-            //If this student sitting at table2 has student 2 as a partner, decrease happiness as student 2 will leave
-            //If this student sitting at table2 has student 1 as a partner, increase happiness as student 1 will enter
-            if(partners.contains(student2)) {
+            for (int b = 0; b < state.getTableCount(table2); b++) {
 
-                happinessChange--;
-            } else if((partners.contains(student1)) && (!student.equals(student2))) {
+                int student2 = state.getStudentAt(table2, b);
+                if (!state.canSwap(student1, student2)) {
+                    continue;
+                }
 
-                happinessChange++;
+                int change = state.happinessChange(student1, student2);
+
+                if (change > maxHappinessIncrease) {
+                    maxHappinessIncrease = change;
+                    swapStudent1 = student1;
+                    swapStudent2 = student2;
+                }
             }
         }
 
-        //Loop through partners of student 1
-        for(Student partner: student1.getPartners()) {
+        if (maxHappinessIncrease > 0) {
+            state.swap(swapStudent1, swapStudent2);
+            return true;
+        }
+        return false;
+    }
 
-            //If this partner is sitting at table 2, increase happiness as student 1 will enter
-            //If this partner is sitting at table 1, decrease happiness as student 1 will leave
-            if((table2.containsStudent(partner)) && (!partner.equals(student2))) {
+    /**
+     * Restart
+     * One independent run of the search: a starting fill of the tables followed by the seating strategy, on its
+     * own arrangement. The result of the task is the best arrangement of the run.
+     */
+    private static class Restart extends RecursiveTask<SeatingState> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final PartnerGraph graph;
+        private final SeatingConstraints.Rules rules;
+        private final int maxTables;
+        private final int tableSize;
+        private final InitialArrangement start;
+        private final SeatingStrategy strategy;
+        private final SplittableRandom random;
+        private final long budget;
+        private final long deadline;
+
+        private final SearchStats stats;
+        private int startHappiness;
+
+        private Restart(PartnerGraph graph, SeatingConstraints.Rules rules, int maxTables, int tableSize, InitialArrangement start, SeatingStrategy strategy, SplittableRandom random, long budget, long deadline, SearchStats stats) {
+            this.graph = graph;
+            this.rules = rules;
+            this.maxTables = maxTables;
+            this.tableSize = tableSize;
+            this.start = start;
+            this.strategy = strategy;
+            this.random = random;
+            this.budget = budget;
+            this.deadline = deadline;
+            this.stats = stats;
+        }
+
+        @Override
+        protected SeatingState compute() {
+
+            long startTime = System.nanoTime();
+            long endTime = Math.min(startTime + budget, deadline);
+
+            SeatingEvents.Fill fillEvent = new SeatingEvents.Fill();
+            fillEvent.begin();
 
-                happinessChange++;
-            } else if(table1.containsStudent(partner)) {
+            SeatingState state = new SeatingState(graph, rules, maxTables, tableSize);
+            start.fill(state, random);
 
-                happinessChange--;
+            startHappiness = state.getTotalHappiness();
+            stats.watch(state);
+
+            if (fillEvent.shouldCommit()) {
+                fillEvent.arrangement = start.getClass().getSimpleName();
+                fillEvent.students = graph.size();
+                fillEvent.tables = maxTables;
+                fillEvent.happiness = startHappiness;
+                fillEvent.commit();
             }
+
+            //The starting arrangement may already be as happy as possible
+            stats.improved(state);
+            if (!stats.shouldStop()) {
+                SeatingEvents.Search searchEvent = new SeatingEvents.Search();
+                searchEvent.begin();
+
+                state = strategy.search(state, endTime, random, stats);
+
+                if (searchEvent.shouldCommit()) {
+                    searchEvent.strategy = strategy.getClass().getSimpleName();
+                    searchEvent.students = graph.size();
+                    searchEvent.tables = maxTables;
+                    searchEvent.iterations = stats.getIterations();
+                    searchEvent.evaluations = stats.getEvaluations();
+                    searchEvent.swaps = stats.getSwaps();
+                    searchEvent.gain = state.getTotalHappiness() - startHappiness;
+                    searchEvent.commit();
+                }
+            }
+
+            stats.finish(state);
+            return state;
         }
+    }
 
-        //Loop through partners of student 2
-        for(Student partner:student2.getPartners()) {
+    /**
+     * newSeed
+     * This method picks a seed for a run that was not given one
+     * @return A long representing the seed
+     */
+    static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
 
-            //If this partner is sitting at table 1, increase happiness as student 2 will enter
-            //If this partner is sitting at table 2, decrease happiness as student 2 will leave
-            if((table1.containsStudent(partner)) && (!partner.equals(student1))) {
+    /**
+     * gapPercent
+     * This method calculates how far a total happiness is from the happiness bound, as a percentage of the bound
+     * @param //2 integers representing the total happiness and the bound
+     * @return A double representing the gap in percent, 0 if the bound is 0
+     */
+    static double gapPercent(int totalHappiness, int bound) {
+        return bound == 0 ? 0 : (bound - totalHappiness) * 100.0 / bound;
+    }
 
-                happinessChange++;
-            } else if(table2.containsStudent(partner)) {
+    /**
+     * totalHappiness
+     * This method computes the total happiness of the students given an arrangement
+     * @param //A SeatingState representing the arrangement, and an arraylist that each student's happiness is added to
+     * @return An integer representing the total happiness
+     */
+    static int totalHappiness(SeatingState state, ArrayList<Integer> happiness){
 
-                happinessChange--;
+        int totalHappiness = 0;
+
+        //Loop through all tables
+        for(int t = 0; t < state.getNumTables(); t++) {
+
+            //Loop through students in current table
+            for(int i = 0; i < state.getTableCount(t); i++) {
+
+                //Count the current student's partners that sit at the same table
+                int studentHappiness = state.studentHappiness(state.getStudentAt(t, i));
+                totalHappiness += studentHappiness;
+
+                //Add each student's happiness to an array list, in order to compute deviation later
+                happiness.add(studentHappiness);
             }
         }
-
-        return happinessChange;
+        return totalHappiness;
     }
 
     /**
      * deviationHappiness
      * This method calculates the standard deviation of all students' happiness to the mean happiness
-     * @param //A double representing the mean student happiness
+     * @param //An arraylist of each student's happiness, a double representing the mean student happiness,
+     * and an integer representing the amount of students
      * @return A double representing the standard deviation of students' happiness
      */
-    private static double deviationHappiness(double meanHappiness) {
+    static double deviationHappiness(ArrayList<Integer> happiness, double meanHappiness, int students) {
 
         double sum = 0;
 
         //Standard deviation formula
-        for(int happiness:happiness) {
-            sum += Math.pow(happiness-meanHappiness,2);
+        for(int h:happiness) {
+            sum += Math.pow(h-meanHappiness,2);
         }
 
-        double dev = Math.sqrt(sum/(students.size()-1));
+        double dev = Math.sqrt(sum/(students-1));
 
         return dev;
     }
-}
\ No newline at end of file
+}
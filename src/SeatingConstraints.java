@@ -0,0 +1,178 @@
+/**
+ * SeatingConstraints.java
+ * Version 1
+ * This class holds the hard constraints that come from the students' accommodations. Students who need step-free
+ * access may only sit at the tables designated as step-free, and the catering can serve only so many special diets
+ * at one table. Every accommodation is mapped to a constraint bit once per run, so the solver checks a seat or a
+ * swap with a few bitwise operations on the student's bits and the table's bits instead of comparing strings.
+ * Students who must not sit with certain others carry one more bit, so the exclusions are only looked at for them.
+ */
+
+//Imports
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Locale;
+
+class SeatingConstraints {
+
+    //Constraint bits of a student's needs
+    static final int STEP_FREE = 1;
+    static final int SPECIAL_DIET = 1 << 1;
+
+    //Set for students who have someone they must not sit with; no table blocks it, the state checks the exclusions
+    static final int EXCLUSION = 1 << 2;
+
+    //Accommodations are matched by these words, in lower case
+    private static final String[] STEP_FREE_WORDS = {"wheelchair", "step-free", "step free", "mobility", "accessible"};
+    private static final String[] DIET_WORDS = {"vegetarian", "vegan", "gluten", "nut", "allerg", "halal", "kosher",
+            "diet", "lactose", "dairy", "celiac", "coeliac"};
+
+    private final BitSet stepFreeTables = new BitSet();
+    private int dietCap;
+
+    /**
+     * SeatingConstraints
+     * This constructor creates constraints that allow any student at any table. Until a table is designated as
+     * step-free every table counts as step-free, and until a diet cap is set there is no cap.
+     */
+    SeatingConstraints() {
+    }
+
+    /**
+     * setStepFree
+     * This method designates a table as step-free
+     * @param //An integer representing the table id, starting at 0
+     */
+    void setStepFree(int table) {
+        if (table < 0) {
+            throw new IllegalArgumentException("Table numbers can't be negative");
+        }
+        stepFreeTables.set(table);
+    }
+
+    /**
+     * isStepFree
+     * @param //An integer representing the table id
+     * @return A boolean representing if students who need step-free access may sit at the table
+     */
+    boolean isStepFree(int table) {
+        return stepFreeTables.isEmpty() || stepFreeTables.get(table);
+    }
+
+    /**
+     * setDietCap
+     * @param //An integer representing the most students with a special diet at one table, 0 for no cap
+     */
+    void setDietCap(int dietCap) {
+        if (dietCap < 0) {
+            throw new IllegalArgumentException("The special diet cap can't be negative");
+        }
+        this.dietCap = dietCap;
+    }
+
+    int getDietCap() {
+        return dietCap;
+    }
+
+    /**
+     * needs
+     * This method maps a student's accommodations to constraint bits
+     * @param //A student
+     * @return An integer representing the bits of the constraints the student needs
+     */
+    static int needs(Student student) {
+
+        ArrayList<String> accommodations = student.getAccommodations();
+        int needs = 0;
+
+        if (accommodations != null) {
+            for (String accommodation : accommodations) {
+                String a = accommodation.toLowerCase(Locale.ROOT);
+                if (matches(a, STEP_FREE_WORDS)) {
+                    needs |= STEP_FREE;
+                }
+                if (matches(a, DIET_WORDS)) {
+                    needs |= SPECIAL_DIET;
+                }
+            }
+        }
+        return needs;
+    }
+
+    private static boolean matches(String accommodation, String[] words) {
+        for (String word : words) {
+            if (accommodation.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * compile
+     * This method builds the constraint bits of a compiled roster at a number of tables
+     * @param //A PartnerGraph representing the roster, and 2 integers representing the amount of tables and the
+     * table capacity
+     * @return The Rules that the seating states of the run share
+     */
+    Rules compile(PartnerGraph graph, int numTables, int tableSize) {
+
+        //A table blocks the needs it can never serve
+        int[] blocked = new int[numTables];
+        int used = 0;
+        for (int t = 0; t < numTables; t++) {
+            if (!isStepFree(t)) {
+                blocked[t] |= STEP_FREE;
+                used |= STEP_FREE;
+            }
+        }
+
+        int cap = dietCap == 0 ? tableSize : Math.min(dietCap, tableSize);
+        if (cap < tableSize) {
+            used |= SPECIAL_DIET;
+        }
+
+        //Needs that no table limits are left out, so those students are seated and swapped like everyone else
+        int[] needs = new int[graph.size()];
+        for (int s = 0; s < needs.length; s++) {
+            if (used != 0) {
+                needs[s] = needs(graph.getStudent(s)) & used;
+            }
+            if (graph.exclusionEnd(s) > graph.exclusionStart(s)) {
+                needs[s] |= EXCLUSION;
+            }
+        }
+
+        return new Rules(needs, blocked, cap);
+    }
+
+    /**
+     * Rules
+     * The constraint bits of one roster at one set of tables. A seat is allowed when the student's bits and the
+     * table's blocked bits don't overlap; a table also blocks SPECIAL_DIET once its diet cap is reached.
+     */
+    static final class Rules {
+
+        private final int[] needs;
+        private final int[] blocked;
+        private final int dietCap;
+
+        private Rules(int[] needs, int[] blocked, int dietCap) {
+            this.needs = needs;
+            this.blocked = blocked;
+            this.dietCap = dietCap;
+        }
+
+        int needs(int s) {
+            return needs[s];
+        }
+
+        int blocked(int t) {
+            return blocked[t];
+        }
+
+        int getDietCap() {
+            return dietCap;
+        }
+    }
+}
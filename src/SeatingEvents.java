@@ -0,0 +1,184 @@
+/**
+ * SeatingEvents.java
+ * Version 1
+ * This class holds the Java Flight Recorder events of the seating system, one per phase of a seating run and of
+ * the floor plan. They are all disabled by default, so a run pays only for creating a few event objects. To record
+ * them, start the program with the settings file that enables them, after the default settings so the JVM's own
+ * events are recorded as well:
+ *   java -XX:StartFlightRecording=filename=seating.jfr,settings=default.jfc,settings=seating.jfc ...
+ * or pass the same settings to jcmd JFR.start on a running program. Every event is in the Prom category.
+ */
+
+//Imports
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+final class SeatingEvents {
+
+    private SeatingEvents() {
+    }
+
+    @Name("prom.SeatingRun")
+    @Label("Seating Run")
+    @Description("One call of SeatingAssignmentSystem.assignTables, from compiling the roster to the final tables")
+    @Category({"Prom", "Seating"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class Run extends Event {
+
+        @Label("Students")
+        int students;
+
+        @Label("Tables")
+        int tables;
+
+        @Label("Table Size")
+        int tableSize;
+
+        @Label("Restarts")
+        int restarts;
+
+        @Label("Workers")
+        int workers;
+
+        @Label("Seed")
+        long seed;
+
+        @Label("Total Happiness")
+        int totalHappiness;
+
+        @Label("Happiness Bound")
+        int bound;
+    }
+
+    @Name("prom.SeatingFill")
+    @Label("Seating Fill")
+    @Description("Building the starting arrangement of one restart, including the shuffle or the cluster growth")
+    @Category({"Prom", "Seating"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class Fill extends Event {
+
+        @Label("Arrangement")
+        String arrangement;
+
+        @Label("Students")
+        int students;
+
+        @Label("Tables")
+        int tables;
+
+        @Label("Start Happiness")
+        int happiness;
+    }
+
+    @Name("prom.SeatingSearch")
+    @Label("Seating Search")
+    @Description("The seating strategy improving the arrangement of one restart")
+    @Category({"Prom", "Seating"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class Search extends Event {
+
+        @Label("Strategy")
+        String strategy;
+
+        @Label("Students")
+        int students;
+
+        @Label("Tables")
+        int tables;
+
+        @Label("Iterations")
+        long iterations;
+
+        @Label("Evaluated Swaps")
+        @Description("Candidate swaps whose happiness change was calculated")
+        long evaluations;
+
+        @Label("Swaps")
+        long swaps;
+
+        @Label("Gain")
+        @Description("Total happiness gained over the starting arrangement")
+        int gain;
+    }
+
+    @Name("prom.SeatingEvaluationBatch")
+    @Label("Seating Evaluation Batch")
+    @Description("A batch of search iterations, which is almost all happinessChange evaluations of candidate swaps")
+    @Category({"Prom", "Seating"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class EvaluationBatch extends Event {
+
+        @Label("Iterations")
+        long iterations;
+
+        @Label("Evaluated Swaps")
+        long evaluations;
+
+        @Label("Swaps")
+        long swaps;
+
+        @Label("Gain")
+        @Description("Change in total happiness of the restart's best arrangement over the batch")
+        int gain;
+    }
+
+    @Name("prom.SeatingStatistics")
+    @Label("Seating Statistics")
+    @Description("totalHappiness and deviationHappiness over the final arrangement")
+    @Category({"Prom", "Seating"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class Statistics extends Event {
+
+        @Label("Students")
+        int students;
+
+        @Label("Tables")
+        int tables;
+
+        @Label("Total Happiness")
+        int totalHappiness;
+
+        @Label("Standard Deviation")
+        double deviation;
+    }
+
+    @Name("prom.FloorPlanRecalculate")
+    @Label("Floor Plan Recalculate")
+    @Description("displayPanel.recalculate on the event dispatch thread: placing the tables and rebuilding the hit-test grid")
+    @Category({"Prom", "Floor Plan"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class Recalculate extends Event {
+
+        @Label("Tables")
+        int tables;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+    }
+
+    @Name("prom.FloorPlanDraw")
+    @Label("Floor Plan Draw")
+    @Description("Redrawing the cached image of all tables on the event dispatch thread")
+    @Category({"Prom", "Floor Plan"})
+    @Enabled(false)
+    @StackTrace(false)
+    static class Draw extends Event {
+
+        @Label("Tables")
+        int tables;
+    }
+}
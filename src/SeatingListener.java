@@ -0,0 +1,20 @@
+/**
+ * SeatingListener.java
+ * Version 1
+ * This interface is implemented by anything that wants to see improved arrangements while the seating
+ * system is still searching, such as the floor plan.
+ */
+
+//Imports
+import java.util.ArrayList;
+
+interface SeatingListener {
+
+    /**
+     * improved
+     * This method is called from the solver's thread whenever a better arrangement is found
+     * @param //An arraylist of tables representing the new arrangement, which belongs to the listener,
+     * and an integer representing its total happiness
+     */
+    void improved(ArrayList<Table> arrangement, int totalHappiness);
+}
@@ -0,0 +1,253 @@
+/**
+ * SeatingMetrics.java
+ * Version 1
+ * This class publishes the counters of the seating solver through JMX, so a run can be watched in JConsole or
+ * any other JMX client while it searches. Each run gets its own Run of counters, which its restarts add to, and
+ * the MBean shows the run that started last.
+ *
+ * Counters are added in batches by SearchStats, so the search loops only touch their own fields; each batch also
+ * carries the total happiness of the arrangement its restart is at. The mean is the best total happiness per
+ * student. The standard deviation needs every student's happiness, so it is calculated for each restart as it
+ * finishes, and shows the best restart finished so far.
+ */
+
+//Imports
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+class SeatingMetrics implements SeatingMetricsMBean {
+
+    private static final String OBJECT_NAME = "Prom:type=SeatingMetrics";
+    private static final SeatingMetrics INSTANCE = new SeatingMetrics();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            //Seating works the same without JMX, the counters just can't be watched
+        }
+    }
+
+    private volatile Run current;
+
+    private SeatingMetrics() {
+    }
+
+    /**
+     * startRun
+     * This method starts the counters of a new run and shows them through the MBean
+     * @param //An integer representing the amount of students, a long representing the seed, and 2 integers
+     * representing the happiness bound and the amount of restarts
+     * @return The Run that the restarts of the run add their counters to
+     */
+    static Run startRun(int students, long seed, int bound, int restarts) {
+        Run run = new Run(students, seed, bound, restarts);
+        INSTANCE.current = run;
+        return run;
+    }
+
+    @Override
+    public boolean isRunning() {
+        Run run = current;
+        return run != null && run.endTime == 0;
+    }
+
+    @Override
+    public int getStudents() {
+        Run run = current;
+        return run == null ? 0 : run.students;
+    }
+
+    @Override
+    public long getSeed() {
+        Run run = current;
+        return run == null ? 0 : run.seed;
+    }
+
+    @Override
+    public double getElapsedSeconds() {
+        Run run = current;
+        return run == null ? 0 : run.elapsedNanos() / 1000000000.0;
+    }
+
+    @Override
+    public long getIterations() {
+        Run run = current;
+        return run == null ? 0 : run.iterations.sum();
+    }
+
+    @Override
+    public double getIterationsPerSecond() {
+        Run run = current;
+        if (run == null || run.elapsedNanos() == 0) {
+            return 0;
+        }
+        return run.iterations.sum() * 1000000000.0 / run.elapsedNanos();
+    }
+
+    @Override
+    public long getEvaluatedPairs() {
+        Run run = current;
+        return run == null ? 0 : run.evaluations.sum();
+    }
+
+    @Override
+    public long getAcceptedSwaps() {
+        Run run = current;
+        return run == null ? 0 : run.swaps.sum();
+    }
+
+    @Override
+    public int getCurrentHappiness() {
+        Run run = current;
+        if (run == null) {
+            return 0;
+        }
+        int happiness = 0;
+        for (int i = 0; i < run.restartHappiness.length(); i++) {
+            happiness = Math.max(happiness, run.restartHappiness.get(i));
+        }
+        return happiness;
+    }
+
+    @Override
+    public int[] getRestartHappiness() {
+        Run run = current;
+        if (run == null) {
+            return new int[0];
+        }
+        int[] happiness = new int[run.restartHappiness.length()];
+        for (int i = 0; i < happiness.length; i++) {
+            happiness[i] = run.restartHappiness.get(i);
+        }
+        return happiness;
+    }
+
+    @Override
+    public int getBestHappiness() {
+        Run run = current;
+        return run == null ? 0 : run.bestHappiness;
+    }
+
+    @Override
+    public int getHappinessBound() {
+        Run run = current;
+        return run == null ? 0 : run.bound;
+    }
+
+    @Override
+    public double getMeanHappiness() {
+        Run run = current;
+        return run == null || run.students == 0 ? 0 : ((double) run.bestHappiness) / run.students;
+    }
+
+    @Override
+    public double getStandardDeviation() {
+        Run run = current;
+        return run == null ? 0 : run.deviation;
+    }
+
+    /**
+     * Run
+     * The counters of one seating run
+     */
+    static class Run {
+
+        private final int students;
+        private final long seed;
+        private final int bound;
+        private final long startTime;
+        private volatile long endTime;
+
+        private final LongAdder iterations = new LongAdder();
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder swaps = new LongAdder();
+
+        //Total happiness of the arrangement each restart is at, and the restarts that were given their place
+        private final AtomicIntegerArray restartHappiness;
+        private final AtomicInteger restartsStarted = new AtomicInteger();
+
+        private volatile int bestHappiness;
+        private volatile double deviation;
+        private int bestFinished = Integer.MIN_VALUE;
+
+        private Run(int students, long seed, int bound, int restarts) {
+            this.students = students;
+            this.seed = seed;
+            this.bound = bound;
+            this.restartHappiness = new AtomicIntegerArray(Math.max(1, restarts));
+            this.startTime = System.nanoTime();
+        }
+
+        /**
+         * startRestart
+         * This method gives a restart of the run its place among the restarts
+         * @return An integer representing the place of the restart, which it passes to the other methods
+         */
+        int startRestart() {
+            return Math.min(restartsStarted.getAndIncrement(), restartHappiness.length() - 1);
+        }
+
+        /**
+         * add
+         * This method adds a batch of counts from one restart
+         * @param //2 longs and an integer representing the iterations, evaluated swaps and performed swaps since the last
+         * batch, and 2 integers representing the place of the restart and the total happiness of the arrangement it is at
+         */
+        void add(long iterations, long evaluations, int swaps, int restart, int totalHappiness) {
+            this.iterations.add(iterations);
+            this.evaluations.add(evaluations);
+            this.swaps.add(swaps);
+            restartHappiness.set(restart, totalHappiness);
+        }
+
+        /**
+         * improved
+         * This method records the total happiness of a restart's new best arrangement
+         * @param //2 integers representing the place of the restart and the total happiness
+         */
+        void improved(int restart, int totalHappiness) {
+            restartHappiness.set(restart, totalHappiness);
+            if (totalHappiness > bestHappiness) {
+                synchronized (this) {
+                    if (totalHappiness > bestHappiness) {
+                        bestHappiness = totalHappiness;
+                    }
+                }
+            }
+        }
+
+        /**
+         * restartFinished
+         * This method records the final arrangement of a restart, whose standard deviation is shown if it is the best
+         * restart finished so far
+         * @param //An integer representing the total happiness, and a double representing its standard deviation
+         */
+        synchronized void restartFinished(int totalHappiness, double deviation) {
+            if (totalHappiness > bestFinished) {
+                bestFinished = totalHappiness;
+                this.deviation = deviation;
+            }
+        }
+
+        /**
+         * finish
+         * This method records the final arrangement of the run and stops its clock
+         * @param //An integer representing the total happiness, and a double representing its standard deviation
+         */
+        void finish(int totalHappiness, double deviation) {
+            bestHappiness = totalHappiness;
+            this.deviation = deviation;
+            endTime = System.nanoTime();
+        }
+
+        private long elapsedNanos() {
+            long end = endTime;
+            return (end == 0 ? System.nanoTime() : end) - startTime;
+        }
+    }
+}
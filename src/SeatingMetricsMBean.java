@@ -0,0 +1,48 @@
+/**
+ * SeatingMetricsMBean.java
+ * Version 1
+ * This interface is the JMX view of the seating solver, registered as Prom:type=SeatingMetrics. Every attribute
+ * describes the latest seating run, and is live while the run is searching.
+ */
+
+public interface SeatingMetricsMBean {
+
+    boolean isRunning();
+
+    int getStudents();
+
+    long getSeed();
+
+    double getElapsedSeconds();
+
+    long getIterations();
+
+    double getIterationsPerSecond();
+
+    long getEvaluatedPairs();
+
+    long getAcceptedSwaps();
+
+    /**
+     * getCurrentHappiness
+     * This method gets the highest total happiness of the arrangements the restarts of the run are at, updated every
+     * batch of iterations; a strategy that accepts worse moves may be below the best happiness
+     * @return An integer representing the total happiness
+     */
+    int getCurrentHappiness();
+
+    /**
+     * getRestartHappiness
+     * This method gets the total happiness of the arrangement each restart of the run is at, in restart order
+     * @return An array of integers representing the total happiness of each restart
+     */
+    int[] getRestartHappiness();
+
+    int getBestHappiness();
+
+    int getHappinessBound();
+
+    double getMeanHappiness();
+
+    double getStandardDeviation();
+}
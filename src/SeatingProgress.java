@@ -0,0 +1,120 @@
+/**
+ * SeatingProgress.java
+ * Version 1
+ * This class connects a running seating search to the code that started it. It passes improved
+ * arrangements on to a listener, at most a few times per second, and lets the search be cancelled
+ * from another thread. One SeatingProgress is shared by all restarts of a run.
+ * An improvement that comes too soon after the last report is kept as pending, by copying its seats, and is
+ * reported once the interval has passed, so the listener is never more than about an interval behind the search.
+ */
+
+class SeatingProgress {
+
+    //Shortest time between two reported arrangements
+    private static final long REPORT_INTERVAL = 250000000L;
+
+    private final SeatingListener listener;
+
+    private volatile boolean cancelled;
+    private volatile int bestReported = Integer.MIN_VALUE;
+    private long lastReport;
+
+    //Seats of the best arrangement not reported yet, and the state it came from (for its roster and tables)
+    private volatile boolean pending;
+    private int[] pendingSeats;
+    private SeatingState pendingState;
+    private int pendingHappiness;
+
+    /**
+     * SeatingProgress
+     * This constructor creates the progress of a run
+     * @param //The SeatingListener that improved arrangements are reported to, or null for none
+     */
+    SeatingProgress(SeatingListener listener) {
+        this.listener = listener;
+        this.lastReport = System.nanoTime() - REPORT_INTERVAL;
+    }
+
+    /**
+     * cancel
+     * This method asks the search to stop as soon as possible
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * improved
+     * This method reports an arrangement if it beats everything seen so far; if the last report was too recent,
+     * the arrangement is kept as pending instead
+     * @param //A SeatingState representing the arrangement
+     */
+    void improved(SeatingState state) {
+
+        //Cheap check first, this is called from the search loop; bestReported also counts the pending arrangement
+        if (listener == null || state.getTotalHappiness() <= bestReported) {
+            return;
+        }
+
+        synchronized (this) {
+            if (state.getTotalHappiness() <= bestReported) {
+                return;
+            }
+            bestReported = state.getTotalHappiness();
+
+            long now = System.nanoTime();
+            if (now - lastReport < REPORT_INTERVAL) {
+                if (pendingSeats == null || pendingSeats.length != state.getGraph().size()) {
+                    pendingSeats = new int[state.getGraph().size()];
+                }
+                state.saveSeats(pendingSeats);
+                pendingState = state;
+                pendingHappiness = state.getTotalHappiness();
+                pending = true;
+                return;
+            }
+            lastReport = now;
+            pending = false;
+            pendingState = null;
+
+            listener.improved(state.toTables(), state.getTotalHappiness());
+        }
+    }
+
+    /**
+     * reportPending
+     * This method reports the pending arrangement once the interval since the last report has passed. The search
+     * calls it regularly, so an improvement is not held back when no further improvement comes.
+     */
+    void reportPending() {
+        if (pending) {
+            report(false);
+        }
+    }
+
+    /**
+     * finish
+     * This method reports the pending arrangement right away; the seating system calls it when the run ends
+     */
+    void finish() {
+        if (pending) {
+            report(true);
+        }
+    }
+
+    private synchronized void report(boolean now) {
+        long time = System.nanoTime();
+        if (!pending || (!now && time - lastReport < REPORT_INTERVAL)) {
+            return;
+        }
+        lastReport = time;
+        pending = false;
+
+        listener.improved(pendingState.toTables(pendingSeats), pendingHappiness);
+        pendingState = null;
+    }
+}
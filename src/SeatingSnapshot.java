@@ -0,0 +1,400 @@
+/**
+ * SeatingSnapshot.java
+ * Version 1
+ * This class saves and loads a roster, and optionally a finished arrangement of it, in a compact binary file.
+ * Every string (names, student numbers, accommodations) is stored once in a string table, and everything else
+ * is a length-prefixed int array, so loading is a few bulk reads with no per-record parsing or reflection.
+ *
+ * File layout, all big-endian:
+ *   long magic "PROMSNAP", int version
+ *   int[] strings: the string table, as UTF-8 byte lengths followed by all the bytes
+ *   int[] names, int[] ids, int[] paid: one entry per student, names and ids index the string table
+ *   int[] partnerStart, int[] partners: CSR partner lists; an entry p >= 0 is the student with id p and
+ *         an entry p < 0 is the partner who is not in the roster at -p-1 in the dangling arrays
+ *   int[] danglingNames, int[] danglingIds: one entry per distinct partner who is not in the roster
+ *   int[] accommodationStart, int[] accommodations: CSR accommodation lists indexing the string table
+ *   int tableSize, int[] tableStart, int[] tableStudents: CSR table arrangement, tableStart is empty if none
+ *   int[] exclusionStart, int[] exclusions: CSR lists of the students each student must not sit with (version 2)
+ * An int[] is its length followed by its values. Version 1 snapshots, without exclusions, can still be read.
+ */
+
+//Imports
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+class SeatingSnapshot {
+
+    private static final long MAGIC = 0x50524f4d534e4150L; //"PROMSNAP"
+    private static final int VERSION = 2;
+
+    private final ArrayList<Student> students;
+    private final ArrayList<Table> tables;
+
+    private SeatingSnapshot(ArrayList<Student> students, ArrayList<Table> tables) {
+        this.students = students;
+        this.tables = tables;
+    }
+
+    /**
+     * getStudents
+     * @return An arraylist of students representing the saved roster
+     */
+    public ArrayList<Student> getStudents() {
+        return students;
+    }
+
+    /**
+     * getTables
+     * @return An arraylist of tables representing the saved arrangement, or null if none was saved
+     */
+    public ArrayList<Table> getTables() {
+        return tables;
+    }
+
+    /**
+     * write
+     * This method saves a roster and an arrangement of it
+     * @param //A path representing the snapshot file, an arraylist of students representing the roster, and
+     * an arraylist of tables representing the arrangement, or null to save only the roster
+     * @throws IOException if the file can't be written
+     */
+    static void write(Path file, ArrayList<Student> students, ArrayList<Table> tables) throws IOException {
+
+        int n = students.size();
+        StringTable strings = new StringTable();
+
+        //Students by name and number, matching Student.equals
+        HashMap<String, Integer> index = new HashMap<String, Integer>(n * 2);
+        int[] names = new int[n];
+        int[] ids = new int[n];
+        int[] paid = new int[n];
+
+        for (int s = n - 1; s >= 0; s--) {
+            index.put(key(students.get(s)), s);
+        }
+        for (int s = 0; s < n; s++) {
+            Student student = students.get(s);
+            names[s] = strings.add(student.getName());
+            ids[s] = strings.add(student.getId());
+            paid[s] = student.hasPaid() ? 1 : 0;
+        }
+
+        //Partner and accommodation lists
+        IntList partners = new IntList();
+        IntList danglingNames = new IntList();
+        IntList danglingIds = new IntList();
+        HashMap<String, Integer> dangling = new HashMap<String, Integer>();
+        IntList accommodations = new IntList();
+        int[] partnerStart = new int[n + 1];
+        int[] accommodationStart = new int[n + 1];
+
+        for (int s = 0; s < n; s++) {
+            Student student = students.get(s);
+
+            if (student.getPartners() != null) {
+                for (Student p : student.getPartners()) {
+                    Integer id = index.get(key(p));
+                    if (id != null) {
+                        partners.add(id);
+                    } else {
+                        Integer d = dangling.get(key(p));
+                        if (d == null) {
+                            d = danglingNames.size();
+                            dangling.put(key(p), d);
+                            danglingNames.add(strings.add(p.getName()));
+                            danglingIds.add(strings.add(p.getId()));
+                        }
+                        partners.add(-d - 1);
+                    }
+                }
+            }
+            partnerStart[s + 1] = partners.size();
+
+            if (student.getAccommodations() != null) {
+                for (String a : student.getAccommodations()) {
+                    accommodations.add(strings.add(a));
+                }
+            }
+            accommodationStart[s + 1] = accommodations.size();
+        }
+
+        //Exclusions, which are always between students of the roster
+        IntList exclusions = new IntList();
+        int[] exclusionStart = new int[n + 1];
+
+        for (int s = 0; s < n; s++) {
+            if (students.get(s).getExclusions() != null) {
+                for (Student e : students.get(s).getExclusions()) {
+                    Integer id = index.get(key(e));
+                    if (id != null) {
+                        exclusions.add(id);
+                    }
+                }
+            }
+            exclusionStart[s + 1] = exclusions.size();
+        }
+
+        //Arrangement
+        int tableSize = 0;
+        int[] tableStart = new int[0];
+        IntList tableStudents = new IntList();
+
+        if (tables != null) {
+            tableStart = new int[tables.size() + 1];
+            for (int t = 0; t < tables.size(); t++) {
+                tableSize = Math.max(tableSize, tables.get(t).getSize());
+                for (Student student : tables.get(t).getStudents()) {
+                    Integer id = index.get(key(student));
+                    if (id != null) {
+                        tableStudents.add(id);
+                    }
+                }
+                tableStart[t + 1] = tableStudents.size();
+            }
+        }
+
+        //Size everything up front and write it with one buffer
+        long size = 12 + strings.byteSize()
+                + arraySize(n) * 3 + arraySize(n + 1) + arraySize(partners.size())
+                + arraySize(danglingNames.size()) * 2
+                + arraySize(n + 1) + arraySize(accommodations.size())
+                + 4 + arraySize(tableStart.length) + arraySize(tableStudents.size())
+                + arraySize(n + 1) + arraySize(exclusions.size());
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Roster is too large for one snapshot");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+        out.putLong(MAGIC);
+        out.putInt(VERSION);
+        strings.write(out);
+        putArray(out, names, n);
+        putArray(out, ids, n);
+        putArray(out, paid, n);
+        putArray(out, partnerStart, n + 1);
+        putArray(out, partners.values, partners.size());
+        putArray(out, danglingNames.values, danglingNames.size());
+        putArray(out, danglingIds.values, danglingIds.size());
+        putArray(out, accommodationStart, n + 1);
+        putArray(out, accommodations.values, accommodations.size());
+        out.putInt(tableSize);
+        putArray(out, tableStart, tableStart.length);
+        putArray(out, tableStudents.values, tableStudents.size());
+        putArray(out, exclusionStart, n + 1);
+        putArray(out, exclusions.values, exclusions.size());
+        out.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    /**
+     * read
+     * This method loads a snapshot
+     * @param //A path representing the snapshot file
+     * @return A SeatingSnapshot holding the roster and the arrangement, if one was saved
+     * @throws IOException if the file can't be read or is not a snapshot
+     */
+    static SeatingSnapshot read(Path file) throws IOException {
+
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be a snapshot");
+            }
+            in = ByteBuffer.allocate((int) channel.size());
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                //Keep reading until the buffer is full
+            }
+            in.flip();
+        }
+
+        try {
+            if (in.getLong() != MAGIC) {
+                throw new IOException(file + " is not a seating snapshot");
+            }
+            int version = in.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException(file + " was saved by a different version");
+            }
+
+            String[] strings = StringTable.read(in);
+            int[] names = getArray(in);
+            int[] ids = getArray(in);
+            int[] paid = getArray(in);
+            int[] partnerStart = getArray(in);
+            int[] partners = getArray(in);
+            int[] danglingNames = getArray(in);
+            int[] danglingIds = getArray(in);
+            int[] accommodationStart = getArray(in);
+            int[] accommodations = getArray(in);
+            int tableSize = in.getInt();
+            int[] tableStart = getArray(in);
+            int[] tableStudents = getArray(in);
+            int[] exclusionStart = version >= 2 ? getArray(in) : new int[names.length + 1];
+            int[] exclusions = version >= 2 ? getArray(in) : new int[0];
+
+            int n = names.length;
+            Student[] roster = new Student[n];
+            ArrayList<Student> students = new ArrayList<Student>(n);
+
+            for (int s = 0; s < n; s++) {
+                roster[s] = new Student(strings[names[s]], strings[ids[s]]);
+                roster[s].setPaid(paid[s] != 0);
+                students.add(roster[s]);
+            }
+
+            //One placeholder object per partner who is not in the roster, shared by everyone who chose them
+            Student[] placeholders = new Student[danglingNames.length];
+            for (int d = 0; d < placeholders.length; d++) {
+                placeholders[d] = new Student(strings[danglingNames[d]], strings[danglingIds[d]]);
+            }
+
+            for (int s = 0; s < n; s++) {
+                ArrayList<Student> chosen = new ArrayList<Student>(partnerStart[s + 1] - partnerStart[s]);
+                for (int i = partnerStart[s]; i < partnerStart[s + 1]; i++) {
+                    int p = partners[i];
+                    chosen.add(p >= 0 ? roster[p] : placeholders[-p - 1]);
+                }
+                roster[s].setPartners(chosen);
+
+                ArrayList<String> needs = new ArrayList<String>(accommodationStart[s + 1] - accommodationStart[s]);
+                for (int i = accommodationStart[s]; i < accommodationStart[s + 1]; i++) {
+                    needs.add(strings[accommodations[i]]);
+                }
+                roster[s].setAccommodations(needs);
+
+                ArrayList<Student> excluded = new ArrayList<Student>(exclusionStart[s + 1] - exclusionStart[s]);
+                for (int i = exclusionStart[s]; i < exclusionStart[s + 1]; i++) {
+                    excluded.add(roster[exclusions[i]]);
+                }
+                roster[s].setExclusions(excluded);
+            }
+
+            ArrayList<Table> tables = null;
+            if (tableStart.length > 0) {
+                tables = new ArrayList<Table>(tableStart.length - 1);
+                for (int t = 0; t + 1 < tableStart.length; t++) {
+                    ArrayList<Student> seated = new ArrayList<Student>(tableStart[t + 1] - tableStart[t]);
+                    for (int i = tableStart[t]; i < tableStart[t + 1]; i++) {
+                        seated.add(roster[tableStudents[i]]);
+                    }
+                    Table table = new Table(tableSize);
+                    table.setStudents(seated);
+                    tables.add(table);
+                }
+            }
+
+            return new SeatingSnapshot(students, tables);
+        } catch (RuntimeException e) {
+            //Short reads and out of range indexes both mean a damaged file
+            throw new IOException(file + " is damaged", e);
+        }
+    }
+
+    private static long arraySize(int length) {
+        return 4 + 4L * length;
+    }
+
+    private static void putArray(ByteBuffer out, int[] values, int length) {
+        out.putInt(length);
+        out.asIntBuffer().put(values, 0, length);
+        out.position(out.position() + 4 * length);
+    }
+
+    private static int[] getArray(ByteBuffer in) {
+        int[] values = new int[in.getInt()];
+        IntBuffer ints = in.asIntBuffer();
+        ints.get(values);
+        in.position(in.position() + 4 * values.length);
+        return values;
+    }
+
+    private static String key(Student s) {
+        return s.getName() + '\u0000' + s.getId();
+    }
+
+    /**
+     * IntList
+     * A growable int array
+     */
+    private static class IntList {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(values, 0, grown, 0, size);
+                values = grown;
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * StringTable
+     * Every distinct string once, in the order they were first added
+     */
+    private static class StringTable {
+
+        private final HashMap<String, Integer> index = new HashMap<String, Integer>();
+        private final ArrayList<byte[]> strings = new ArrayList<byte[]>();
+        private long bytes;
+
+        int add(String s) {
+            Integer i = index.get(s);
+            if (i == null) {
+                i = strings.size();
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                index.put(s, i);
+                strings.add(utf8);
+                bytes += utf8.length;
+            }
+            return i;
+        }
+
+        long byteSize() {
+            return arraySize(strings.size()) + bytes;
+        }
+
+        void write(ByteBuffer out) {
+            out.putInt(strings.size());
+            for (byte[] s : strings) {
+                out.putInt(s.length);
+            }
+            for (byte[] s : strings) {
+                out.put(s);
+            }
+        }
+
+        static String[] read(ByteBuffer in) {
+            int[] lengths = getArray(in);
+            String[] strings = new String[lengths.length];
+            byte[] all = in.array();
+            int offset = in.arrayOffset() + in.position();
+            for (int i = 0; i < lengths.length; i++) {
+                strings[i] = new String(all, offset, lengths[i], StandardCharsets.UTF_8);
+                offset += lengths[i];
+            }
+            in.position(offset - in.arrayOffset());
+            return strings;
+        }
+    }
+}
@@ -0,0 +1,553 @@
+/**
+ * SeatingState.java
+ * Version 1
+ * This class holds one arrangement of a compiled roster at tables, using dense student and table ids.
+ * Alongside the seats it keeps a partner-count matrix: for every student s and table t, the summed weight of the
+ * partner links between s and the students seated at t (partners s chose plus students who chose s). With the
+ * default rank weights every link weighs 1, so this is the number of links.
+ * The matrix is updated on every committed swap, so the happiness change of a candidate swap is read
+ * without scanning any table. The state also keeps the constraint bits each table blocks, including the special
+ * diet bit once the table's diet cap is reached, so a seat or swap is checked against the accommodations with a
+ * few bitwise operations. Exclusions are kept in a conflict-count matrix like the partner counts: for every student
+ * s and table t, the number of students seated at t that s must not sit with. It is updated in O(exclusions) when a
+ * student with exclusions moves, so a swap is rejected in O(1). Above the matrix limit every table counts its
+ * students with exclusions instead, and the exclusion list is only walked at tables where one of them sits.
+ */
+
+//Imports
+import java.util.ArrayList;
+import java.util.Arrays;
+
+class SeatingState {
+
+    //Above this many student/table cells the counts are computed from the adjacency instead of stored
+    private static final long LINK_MATRIX_LIMIT = 1 << 22;
+
+    private final PartnerGraph graph;
+    private final int numTables;
+    private final int tableSize;
+
+    //Table of every student (-1 if not seated) and their position at that table
+    private final int[] seat;
+    private final int[] slot;
+
+    //Students at table t are tableStudents[t*tableSize] to tableStudents[t*tableSize+tableCounts[t]-1]
+    private final int[] tableStudents;
+    private final int[] tableCounts;
+
+    //links[s*numTables+t] is the weight of the partner links between student s and the students at table t
+    private final int[] links;
+
+    //Constraint bits of the students, the bits each table blocks right now, and the special diets at each table
+    private final SeatingConstraints.Rules rules;
+    private final int[] tableBlocked;
+    private final int[] dietCounts;
+
+    //Amount of students with exclusions at each table, and conflicts[s*numTables+t], the amount of students at
+    //table t that student s must not sit with (null when nobody has exclusions or the roster is too large)
+    private final int[] exclusionCounts;
+    private final int[] conflicts;
+
+    private int totalHappiness;
+
+    /**
+     * SeatingState
+     * This constructor creates an empty arrangement of tables where any student may sit at any table
+     * @param //A compiled roster, and 2 integers representing the amount of tables and table capacity
+     */
+    SeatingState(PartnerGraph graph, int numTables, int tableSize) {
+        this(graph, new SeatingConstraints().compile(graph, numTables, tableSize), numTables, tableSize);
+    }
+
+    /**
+     * SeatingState
+     * This constructor creates an empty arrangement of tables
+     * @param //A compiled roster, the constraint Rules compiled for it, and 2 integers representing the amount of
+     * tables and table capacity
+     */
+    SeatingState(PartnerGraph graph, SeatingConstraints.Rules rules, int numTables, int tableSize) {
+        this.graph = graph;
+        this.numTables = numTables;
+        this.tableSize = tableSize;
+        this.seat = new int[graph.size()];
+        this.slot = new int[graph.size()];
+        this.tableStudents = new int[numTables * tableSize];
+        this.tableCounts = new int[numTables];
+
+        if ((long) graph.size() * numTables <= LINK_MATRIX_LIMIT) {
+            this.links = new int[graph.size() * numTables];
+        } else {
+            this.links = null;
+        }
+
+        Arrays.fill(seat, -1);
+
+        this.rules = rules;
+        this.tableBlocked = new int[numTables];
+        this.dietCounts = new int[numTables];
+        this.exclusionCounts = new int[numTables];
+        this.conflicts = links != null && graph.hasExclusions() ? new int[graph.size() * numTables] : null;
+        for (int t = 0; t < numTables; t++) {
+            tableBlocked[t] = rules.blocked(t);
+        }
+    }
+
+    private SeatingState(SeatingState other) {
+        this.graph = other.graph;
+        this.numTables = other.numTables;
+        this.tableSize = other.tableSize;
+        this.seat = other.seat.clone();
+        this.slot = other.slot.clone();
+        this.tableStudents = other.tableStudents.clone();
+        this.tableCounts = other.tableCounts.clone();
+        this.links = other.links == null ? null : other.links.clone();
+        this.rules = other.rules;
+        this.tableBlocked = other.tableBlocked.clone();
+        this.dietCounts = other.dietCounts.clone();
+        this.exclusionCounts = other.exclusionCounts.clone();
+        this.conflicts = other.conflicts == null ? null : other.conflicts.clone();
+        this.totalHappiness = other.totalHappiness;
+    }
+
+    /**
+     * copy
+     * This method copies the arrangement, so it can be searched independently
+     * @return A SeatingState representing a copy of this arrangement
+     */
+    SeatingState copy() {
+        return new SeatingState(this);
+    }
+
+    /**
+     * saveSeats
+     * This method saves the table of every student. It is much smaller than a copy, as the partner and conflict
+     * counts are left out; restore builds them again.
+     * @return An array of integers representing the table of every student, -1 if not seated
+     */
+    int[] saveSeats() {
+        return seat.clone();
+    }
+
+    /**
+     * saveSeats
+     * This method saves the table of every student like saveSeats above, into an array that can be reused
+     * @param //An array of integers with room for every student
+     */
+    void saveSeats(int[] seats) {
+        System.arraycopy(seat, 0, seats, 0, seat.length);
+    }
+
+    /**
+     * restore
+     * This method builds the arrangement of saved seats
+     * @param //An array of integers from saveSeats of an arrangement of the same roster and tables
+     * @return A new SeatingState with every student at their saved table
+     */
+    SeatingState restore(int[] seats) {
+        SeatingState state = new SeatingState(graph, rules, numTables, tableSize);
+        for (int s = 0; s < seats.length; s++) {
+            if (seats[s] >= 0) {
+                state.seatStudent(s, seats[s]);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * seatStudent
+     * This method seats an unseated student at a table that is not full
+     * @param //2 integers representing the student id and the table id
+     */
+    void seatStudent(int s, int t) {
+        totalHappiness += links(s, t);
+        slot[s] = tableCounts[t];
+        tableStudents[t * tableSize + tableCounts[t]++] = s;
+        seat[s] = t;
+        moveLinks(s, -1, t);
+
+        if ((rules.needs(s) & SeatingConstraints.SPECIAL_DIET) != 0) {
+            addDiet(t, 1);
+        }
+        if ((rules.needs(s) & SeatingConstraints.EXCLUSION) != 0) {
+            exclusionCounts[t]++;
+            moveConflicts(s, -1, t);
+        }
+    }
+
+    /**
+     * canSeat
+     * This method checks if a student's accommodations and exclusions allow them at a table
+     * @param //2 integers representing the student id and the table id
+     * @return A boolean representing if the table serves every need of the student and nobody there is excluded
+     */
+    boolean canSeat(int s, int t) {
+        int needs = rules.needs(s);
+        return (needs & tableBlocked[t]) == 0 && ((needs & SeatingConstraints.EXCLUSION) == 0 || !excluded(s, t, -1));
+    }
+
+    /**
+     * canSwap
+     * This method checks if two students at different tables may swap seats. A student's needs must not be blocked
+     * by the other student's table, except for a special diet that takes the place of another special diet, and
+     * neither student may end up at a table with someone they are excluded from.
+     * @param //2 integers representing the ids of the students to swap
+     * @return A boolean representing if the swap keeps every accommodation served and every exclusion apart
+     */
+    boolean canSwap(int student1, int student2) {
+
+        int needs1 = rules.needs(student1);
+        int needs2 = rules.needs(student2);
+
+        if ((needs1 | needs2) == 0) {
+            return true;
+        }
+
+        int table1 = seat[student1];
+        int table2 = seat[student2];
+
+        return (needs1 & ~(needs2 & SeatingConstraints.SPECIAL_DIET) & tableBlocked[table2]) == 0
+                && (needs2 & ~(needs1 & SeatingConstraints.SPECIAL_DIET) & tableBlocked[table1]) == 0
+                && ((needs1 & SeatingConstraints.EXCLUSION) == 0 || !excluded(student1, table2, student2))
+                && ((needs2 & SeatingConstraints.EXCLUSION) == 0 || !excluded(student2, table1, student1));
+    }
+
+    /**
+     * excluded
+     * This method checks if a student with exclusions would sit with someone they are excluded from at a table.
+     * It is O(1) with the conflict matrix; without it, O(1) when nobody else at the table has exclusions and
+     * O(exclusions of s) otherwise.
+     * @param //3 integers representing the student id, the table id, and a student leaving the table (-1 for none)
+     * @return A boolean representing if an excluded student sits at the table
+     */
+    private boolean excluded(int s, int t, int leaving) {
+
+        if (conflicts != null) {
+            int count = conflicts[s * numTables + t];
+            return count > 1 || (count == 1 && (leaving < 0 || !graph.isExcluded(s, leaving)));
+        }
+
+        int others = exclusionCounts[t];
+        if (leaving >= 0 && (rules.needs(leaving) & SeatingConstraints.EXCLUSION) != 0) {
+            others--;
+        }
+        if (others == 0) {
+            return false;
+        }
+
+        for (int i = graph.exclusionStart(s); i < graph.exclusionEnd(s); i++) {
+            int e = graph.exclusion(i);
+            if (e != leaving && seat[e] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * moveConflicts
+     * This method updates the conflict counts of a student's exclusions after the student changes table
+     * @param //3 integers representing the student id, the old table id (-1 if none) and the new table id
+     */
+    private void moveConflicts(int s, int from, int to) {
+
+        if (conflicts == null) {
+            return;
+        }
+
+        for (int i = graph.exclusionStart(s); i < graph.exclusionEnd(s); i++) {
+            int e = graph.exclusion(i) * numTables;
+            if (from >= 0) {
+                conflicts[e + from]--;
+            }
+            conflicts[e + to]++;
+        }
+    }
+
+    /**
+     * seatAccommodated
+     * This method seats the unseated students with accommodations before anyone else, so the fill that follows
+     * can't take the seats they need. Students who need step-free access go first, as they have the fewest
+     * tables, then special diets, then students with exclusions, and the students are spread over the tables they
+     * may sit at.
+     * @param //An array of integers representing the order to seat the students in
+     */
+    void seatAccommodated(int[] order) {
+
+        int next = 0;
+
+        for (int need : new int[] {SeatingConstraints.STEP_FREE, SeatingConstraints.SPECIAL_DIET, SeatingConstraints.EXCLUSION}) {
+            for (int s : order) {
+
+                if (seat[s] >= 0 || (rules.needs(s) & need) == 0) {
+                    continue;
+                }
+
+                for (int i = 0; i < numTables; i++) {
+                    int t = (next + i) % numTables;
+                    if (!isFull(t) && canSeat(s, t)) {
+                        seatStudent(s, t);
+                        next = t + 1;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * addDiet
+     * This method changes the amount of special diets at a table and blocks the table for more once its cap is reached
+     * @param //2 integers representing the table id and the change
+     */
+    private void addDiet(int t, int change) {
+        dietCounts[t] += change;
+        if (dietCounts[t] >= rules.getDietCap()) {
+            tableBlocked[t] |= SeatingConstraints.SPECIAL_DIET;
+        } else {
+            tableBlocked[t] &= ~SeatingConstraints.SPECIAL_DIET;
+        }
+    }
+
+    /**
+     * happinessChange
+     * This method calculates the change in total happiness if two students at different tables swap seats
+     * @param //2 integers representing the ids of the students to swap
+     * @return An integer, representing the change in happiness after this swap occurs
+     */
+    int happinessChange(int student1, int student2) {
+
+        int table1 = seat[student1];
+        int table2 = seat[student2];
+
+        //Links between the two students stay split across two tables either way
+        int shared = graph.linkWeight(student1, student2) + graph.linkWeight(student2, student1);
+
+        return links(student1, table2) - links(student1, table1)
+                + links(student2, table1) - links(student2, table2)
+                - 2 * shared;
+    }
+
+    /**
+     * swap
+     * This method swaps the seats of two students at different tables and updates the partner counts
+     * @param //2 integers representing the ids of the students to swap
+     */
+    void swap(int student1, int student2) {
+
+        totalHappiness += happinessChange(student1, student2);
+
+        int table1 = seat[student1];
+        int table2 = seat[student2];
+        int slot1 = slot[student1];
+        int slot2 = slot[student2];
+
+        tableStudents[table1 * tableSize + slot1] = student2;
+        tableStudents[table2 * tableSize + slot2] = student1;
+        seat[student1] = table2;
+        seat[student2] = table1;
+        slot[student1] = slot2;
+        slot[student2] = slot1;
+
+        moveLinks(student1, table1, table2);
+        moveLinks(student2, table2, table1);
+
+        //Only a swap between a special diet and a student without one changes the diet counts
+        int diet = (rules.needs(student1) ^ rules.needs(student2)) & SeatingConstraints.SPECIAL_DIET;
+        if (diet != 0) {
+            int into = (rules.needs(student1) & SeatingConstraints.SPECIAL_DIET) != 0 ? table2 : table1;
+            addDiet(into, 1);
+            addDiet(into == table1 ? table2 : table1, -1);
+        }
+
+        int exclusion = (rules.needs(student1) ^ rules.needs(student2)) & SeatingConstraints.EXCLUSION;
+        if (exclusion != 0) {
+            int into = (rules.needs(student1) & SeatingConstraints.EXCLUSION) != 0 ? table2 : table1;
+            exclusionCounts[into]++;
+            exclusionCounts[into == table1 ? table2 : table1]--;
+        }
+        if ((rules.needs(student1) & SeatingConstraints.EXCLUSION) != 0) {
+            moveConflicts(student1, table1, table2);
+        }
+        if ((rules.needs(student2) & SeatingConstraints.EXCLUSION) != 0) {
+            moveConflicts(student2, table2, table1);
+        }
+    }
+
+    /**
+     * links
+     * This method gets the weight of the partner links between a student and the students at a table
+     * @param //2 integers representing the student id and the table id
+     * @return An integer representing the summed weight of the links
+     */
+    int links(int s, int t) {
+
+        if (links != null) {
+            return links[s * numTables + t];
+        }
+
+        int count = 0;
+        for (int i = graph.partnerStart(s); i < graph.partnerEnd(s); i++) {
+            if (seat[graph.partner(i)] == t) {
+                count += graph.partnerWeight(i);
+            }
+        }
+        for (int i = graph.chooserStart(s); i < graph.chooserEnd(s); i++) {
+            if (seat[graph.chooser(i)] == t) {
+                count += graph.chooserWeight(i);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * moveLinks
+     * This method updates the partner counts of a student's neighbours after the student changes table
+     * @param //3 integers representing the student id, the old table id (-1 if none) and the new table id
+     */
+    private void moveLinks(int s, int from, int to) {
+
+        if (links == null) {
+            return;
+        }
+
+        for (int i = graph.partnerStart(s); i < graph.partnerEnd(s); i++) {
+            int p = graph.partner(i) * numTables;
+            int w = graph.partnerWeight(i);
+            if (from >= 0) {
+                links[p + from] -= w;
+            }
+            links[p + to] += w;
+        }
+        for (int i = graph.chooserStart(s); i < graph.chooserEnd(s); i++) {
+            int c = graph.chooser(i) * numTables;
+            int w = graph.chooserWeight(i);
+            if (from >= 0) {
+                links[c + from] -= w;
+            }
+            links[c + to] += w;
+        }
+    }
+
+    /**
+     * studentHappiness
+     * This method sums the weights of the student's partners who sit at the student's table
+     * @param //An integer representing the student id
+     * @return An integer representing the student's happiness
+     */
+    int studentHappiness(int s) {
+
+        int happiness = 0;
+        for (int i = graph.partnerStart(s); i < graph.partnerEnd(s); i++) {
+            if (seat[graph.partner(i)] == seat[s]) {
+                happiness += graph.partnerWeight(i);
+            }
+        }
+        return happiness;
+    }
+
+    /**
+     * toTables
+     * This method copies the arrangement into new table objects
+     * @return An arraylist of tables, one per table id, with the students seated at them
+     */
+    ArrayList<Table> toTables() {
+
+        ArrayList<Table> tables = new ArrayList<Table>(numTables);
+
+        for (int t = 0; t < numTables; t++) {
+
+            ArrayList<Student> seated = new ArrayList<Student>(tableCounts[t]);
+
+            for (int i = 0; i < tableCounts[t]; i++) {
+                seated.add(graph.getStudent(tableStudents[t * tableSize + i]));
+            }
+
+            Table table = new Table(tableSize);
+            table.setStudents(seated);
+            tables.add(table);
+        }
+        return tables;
+    }
+
+    /**
+     * toTables
+     * This method copies saved seats of this roster and these tables into new table objects, without building
+     * their state
+     * @param //An array of integers from saveSeats
+     * @return An arraylist of tables, one per table id, with the students seated at them
+     */
+    ArrayList<Table> toTables(int[] seats) {
+
+        ArrayList<ArrayList<Student>> seated = new ArrayList<ArrayList<Student>>(numTables);
+        for (int t = 0; t < numTables; t++) {
+            seated.add(new ArrayList<Student>(tableSize));
+        }
+        for (int s = 0; s < seats.length; s++) {
+            if (seats[s] >= 0) {
+                seated.get(seats[s]).add(graph.getStudent(s));
+            }
+        }
+
+        ArrayList<Table> tables = new ArrayList<Table>(numTables);
+        for (int t = 0; t < numTables; t++) {
+            Table table = new Table(tableSize);
+            table.setStudents(seated.get(t));
+            tables.add(table);
+        }
+        return tables;
+    }
+
+    /**
+     * getSeatedStudents
+     * This method lists the ids of all students seated at a table
+     * @return An array of integers representing the seated student ids
+     */
+    int[] getSeatedStudents() {
+
+        int count = 0;
+        for (int t = 0; t < numTables; t++) {
+            count += tableCounts[t];
+        }
+
+        int[] seated = new int[count];
+        int i = 0;
+        for (int t = 0; t < numTables; t++) {
+            for (int j = 0; j < tableCounts[t]; j++) {
+                seated[i++] = tableStudents[t * tableSize + j];
+            }
+        }
+        return seated;
+    }
+
+    int getTotalHappiness() {
+        return totalHappiness;
+    }
+
+    PartnerGraph getGraph() {
+        return graph;
+    }
+
+    int getNumTables() {
+        return numTables;
+    }
+
+    int getTableSize() {
+        return tableSize;
+    }
+
+    int getSeat(int s) {
+        return seat[s];
+    }
+
+    int getTableCount(int t) {
+        return tableCounts[t];
+    }
+
+    int getStudentAt(int t, int i) {
+        return tableStudents[t * tableSize + i];
+    }
+
+    boolean isFull(int t) {
+        return tableCounts[t] == tableSize;
+    }
+}
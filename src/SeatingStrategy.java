@@ -0,0 +1,26 @@
+/**
+ * SeatingStrategy.java
+ * Version 1
+ * This interface is implemented by the search engines that improve an arrangement of students at tables.
+ * The seating system fills the tables and then hands the arrangement to a strategy, so the engine can be
+ * picked for every run.
+ */
+
+//Imports
+import java.util.SplittableRandom;
+
+interface SeatingStrategy {
+
+    /**
+     * search
+     * This method improves an arrangement by swapping students between tables.
+     * The given arrangement may be changed, and the best arrangement found is returned.
+     * @param //A SeatingState representing the filled arrangement, a long representing the System.nanoTime()
+     * at which the search must stop, the random number generator of this restart (split from the run's seed, so
+     * it is never shared between threads and a run can be repeated), and the
+     * SearchStats that the iterations and swaps are counted in. Strategies report every new best arrangement
+     * to the stats and stop early when the stats say the run should stop.
+     * @return A SeatingState representing the best arrangement found
+     */
+    SeatingState search(SeatingState state, long endTime, SplittableRandom random, SearchStats stats);
+}
@@ -0,0 +1,123 @@
+/**
+ * SimulatedAnnealingStrategy.java
+ * Version 1
+ * This class is a seating engine that swaps random pairs of students and also accepts swaps that lower the
+ * total happiness, with a probability that falls as the temperature cools. This lets the search leave
+ * arrangements where no single swap helps. The temperature starts at the initial temperature and is
+ * multiplied by the cooling rate after every round of moves, until it drops below the final temperature.
+ * The rounds share the time the search has: every round lasts its share of the time left, so the schedule cools
+ * down just as the deadline arrives instead of finishing early and leaving the rest of the time unused.
+ */
+
+//Imports
+import java.util.SplittableRandom;
+
+class SimulatedAnnealingStrategy implements SeatingStrategy {
+
+    private final double initialTemperature;
+    private final double finalTemperature;
+    private final double coolingRate;
+    private final int movesPerTemperature;
+
+    /**
+     * SimulatedAnnealingStrategy
+     * This constructor creates an engine with the default cooling schedule
+     */
+    public SimulatedAnnealingStrategy() {
+        this(2.0, 0.05, 0.95, 0);
+    }
+
+    /**
+     * SimulatedAnnealingStrategy
+     * This constructor creates an engine with a custom geometric cooling schedule
+     * @param //3 doubles representing the initial temperature, the final temperature and the cooling rate
+     * (between 0 and 1), and an integer representing the least amount of moves tried at each temperature, or 0
+     * to try at least 20 moves per seated student. A temperature gets more moves when the time allows.
+     */
+    public SimulatedAnnealingStrategy(double initialTemperature, double finalTemperature, double coolingRate, int movesPerTemperature) {
+        if (initialTemperature <= 0 || finalTemperature <= 0 || coolingRate <= 0 || coolingRate >= 1) {
+            throw new IllegalArgumentException("Temperatures must be positive and the cooling rate between 0 and 1");
+        }
+        this.initialTemperature = initialTemperature;
+        this.finalTemperature = finalTemperature;
+        this.coolingRate = coolingRate;
+        this.movesPerTemperature = movesPerTemperature;
+    }
+
+    @Override
+    public SeatingState search(SeatingState state, long endTime, SplittableRandom random, SearchStats stats) {
+
+        int maxTables = state.getNumTables();
+        int[] seated = state.getSeatedStudents();
+
+        if (maxTables <= 1 || seated.length < 2) {
+            return state;
+        }
+
+        int moves = movesPerTemperature > 0 ? movesPerTemperature : 20 * seated.length;
+
+        //A sweep is a whole temperature step: at high temperatures the search is meant to leave its best arrangement
+        //for a while, so a plateau of a few passes over the students would stop it before it cools down. The steps
+        //share the time, so after every step the sweep becomes the moves that step made.
+        stats.setSweepLength(moves);
+
+        //Temperature steps left in the schedule, which share the time until the deadline
+        int steps = (int) Math.floor(Math.log(finalTemperature / initialTemperature) / Math.log(coolingRate)) + 1;
+
+        //The seats of the best arrangement are only saved when the search is about to leave it
+        int[] best = null;
+        int bestHappiness = state.getTotalHappiness();
+        boolean atBest = true;
+
+        for (double temperature = initialTemperature; temperature >= finalTemperature; temperature *= coolingRate) {
+
+            long now = System.nanoTime();
+            long stepEnd = now + Math.max(0, endTime - now) / Math.max(1, steps--);
+
+            //Try at least the moves of a step, and keep trying until the step's share of the time is used; the clock
+            //and a cancel are only checked every 256 moves
+            int move;
+            for (move = 0; move < moves || (move & 255) != 0 || (System.nanoTime() < stepEnd && !stats.shouldStop()); move++) {
+
+                //Pick a random student and a random student at another table
+                int student1 = seated[random.nextInt(seated.length)];
+                int student2 = seated[random.nextInt(seated.length)];
+
+                stats.addIteration();
+
+                if (state.getSeat(student1) == state.getSeat(student2) || !state.canSwap(student1, student2)) {
+                    continue;
+                }
+
+                int change = state.happinessChange(student1, student2);
+                stats.addEvaluations(1);
+
+                //Always accept improvements, accept worse swaps with probability e^(change/temperature)
+                if (change >= 0 || random.nextDouble() < Math.exp(change / temperature)) {
+
+                    if (change < 0 && atBest) {
+                        best = state.saveSeats();
+                        atBest = false;
+                    }
+
+                    state.swap(student1, student2);
+                    stats.addSwap();
+
+                    if (state.getTotalHappiness() > bestHappiness) {
+                        bestHappiness = state.getTotalHappiness();
+                        atBest = true;
+                        stats.improved(state);
+                    }
+                }
+            }
+
+            stats.setSweepLength(move);
+
+            if (System.nanoTime() >= endTime || stats.shouldStop()) {
+                break;
+            }
+        }
+
+        return atBest ? state : state.restore(best);
+    }
+}
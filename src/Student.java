@@ -7,6 +7,7 @@ public class Student {
     private String  id;
     private ArrayList<Student> partners;
     private ArrayList<String> accommodations;
+    private ArrayList<Student> exclusions;
     private boolean paid;
 
     Student(String name, String  id, ArrayList<Student> partners) {
@@ -14,6 +15,7 @@ public class Student {
         this.id = id;
         this.partners = partners;
         accommodations = new ArrayList<String>();
+        exclusions = new ArrayList<Student>();
     }
 
     Student(String name, String id) {
@@ -21,12 +23,18 @@ public class Student {
         this.id = id;
         partners = new ArrayList<>();
         accommodations = new ArrayList<String>();
+        exclusions = new ArrayList<Student>();
     }
 
     public String getName() {
         return name;
     }
 
+    //Only the StudentRegistry renames a student, while they are in none of its indexes
+    void setName(String name) {
+        this.name = name;
+    }
+
     public String getId() {
         return id;
     }
@@ -55,6 +63,14 @@ public class Student {
         return accommodations;
     }
 
+    public ArrayList<Student> getExclusions() {
+        return exclusions;
+    }
+
+    public void setExclusions(ArrayList<Student> exclusions) {
+        this.exclusions = exclusions;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -63,4 +79,9 @@ public class Student {
         return  Objects.equals(name, student.name) &&
                 Objects.equals(id, student.id);
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, id);
+    }
 }
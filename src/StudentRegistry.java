@@ -0,0 +1,165 @@
+/**
+ * StudentRegistry.java
+ * Version 1
+ * This class is the master list of students together with hash indexes over it, so finding a student
+ * by name and number is one lookup instead of a scan of the list.
+ * Students must only be added through the registry, so the list and the indexes stay in step.
+ *
+ * The registry also hands out the one canonical Student object for every partner reference. Partners are matched
+ * by number and normalized name (ignoring case and extra spaces), as a partner's name is typed by someone else.
+ * A partner who has not signed up yet is a dangling placeholder, kept out of the master list. When they sign up,
+ * the placeholder itself is registered under the name they signed up with, so every partner list that already
+ * points at it now points at the registered student.
+ */
+
+//Imports
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+class StudentRegistry {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    //The master list, in sign up order
+    private final ArrayList<Student> students;
+
+    //Students by name and number (Student.equals), and by number and normalized name (partnerKey)
+    private final HashMap<Student, Student> byStudent;
+    private final HashMap<String, Student> byPartnerKey;
+
+    //Partners who have been chosen but have not signed up, by partnerKey, in the order they were first chosen
+    private final HashMap<String, Student> dangling;
+
+    /**
+     * StudentRegistry
+     * This constructor indexes a master list and points every partner list in it at canonical objects.
+     * Later copies of a student already in the list are not indexed.
+     * @param //An arraylist of students representing the master list, which the registry keeps adding to
+     */
+    StudentRegistry(ArrayList<Student> students) {
+        this.students = students;
+        this.byStudent = new HashMap<Student, Student>(students.size() * 2);
+        this.byPartnerKey = new HashMap<String, Student>(students.size() * 2);
+        this.dangling = new LinkedHashMap<String, Student>();
+
+        for (Student s : students) {
+            index(s);
+        }
+        for (Student s : students) {
+            if (s.getPartners() != null) {
+                ArrayList<Student> partners = new ArrayList<Student>(s.getPartners().size());
+                for (Student p : s.getPartners()) {
+                    partners.add(resolve(p.getName(), p.getId()));
+                }
+                s.setPartners(partners);
+            }
+        }
+    }
+
+    /**
+     * register
+     * This method signs a student up. If they were already chosen as someone's partner, their placeholder is
+     * the object that is added to the master list, with the name the student signed up with.
+     * @param //A student
+     * @return The registered student: the one already in the master list, the upgraded placeholder, or s
+     */
+    Student register(Student s) {
+        Student registered = byStudent.get(s);
+        if (registered != null) {
+            return registered;
+        }
+
+        Student placeholder = dangling.remove(partnerKey(s.getName(), s.getId()));
+        if (placeholder != null) {
+            registered = placeholder;
+            registered.setName(s.getName());
+        } else {
+            registered = s;
+        }
+        students.add(registered);
+        index(registered);
+        return registered;
+    }
+
+    /**
+     * resolve
+     * This method finds the canonical object for a partner reference, ignoring case and extra spaces in the name
+     * @param //2 strings representing the partner's name and student number
+     * @return The registered student, or the dangling placeholder for them, created if this is the first reference
+     */
+    Student resolve(String name, String id) {
+        Student found = byStudent.get(new Student(name, id));
+        if (found != null) {
+            return found;
+        }
+        String key = partnerKey(name, id);
+        found = byPartnerKey.get(key);
+        if (found == null) {
+            found = dangling.computeIfAbsent(key, k -> new Student(name, id));
+        }
+        return found;
+    }
+
+    private void index(Student s) {
+        if (byStudent.putIfAbsent(s, s) != null) {
+            return;
+        }
+        byPartnerKey.putIfAbsent(partnerKey(s.getName(), s.getId()), s);
+    }
+
+    /**
+     * find
+     * This method finds the registered copy of a student
+     * @param //A student, or any student object with the same name and number
+     * @return The student in the master list, or null if they are not registered
+     */
+    Student find(Student s) {
+        return byStudent.get(s);
+    }
+
+    /**
+     * contains
+     * @param //A student
+     * @return A boolean representing if a student with the same name and number is registered
+     */
+    boolean contains(Student s) {
+        return byStudent.containsKey(s);
+    }
+
+    /**
+     * normalize
+     * This method puts a name in the form it is indexed under: trimmed, single spaced and lower case
+     * @param //A string representing a name
+     * @return The normalized name
+     */
+    static String normalize(String name) {
+        return WHITESPACE.matcher(name.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String partnerKey(String name, String id) {
+        return id + "," + normalize(name);
+    }
+
+    /**
+     * getDangling
+     * @return An arraylist of the partners who were chosen but have not signed up
+     */
+    ArrayList<Student> getDangling() {
+        return new ArrayList<Student>(dangling.values());
+    }
+
+    /**
+     * getStudents
+     * @return The master list. It must not be added to directly.
+     */
+    ArrayList<Student> getStudents() {
+        return students;
+    }
+
+    int size() {
+        return students.size();
+    }
+}
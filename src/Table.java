@@ -9,7 +9,9 @@
 //import statements
 import javax.swing.text.Utilities;
 import java.awt.Color;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.util.ArrayList;
 
 
@@ -75,6 +77,23 @@ public class Table {
 
     }
 
+    /**
+     * getBounds
+     * This method gets the area that draw paints, including the name labels above the seats
+     * @param //The FontMetrics of the font the names are drawn with
+     * @return A rectangle containing everything drawn for this table
+     */
+    public Rectangle getBounds(FontMetrics metrics) {
+        int labelWidth = 0;
+        for (Student s : students) {
+            labelWidth = Math.max(labelWidth, metrics.stringWidth(s.getName()));
+        }
+        int labelHeight = metrics.getAscent() + metrics.getDescent() + 3;
+
+        int left = x - r - labelWidth / 2 - 1;
+        int top = y - r - labelHeight - 1;
+        return new Rectangle(left, top, 2 * (x - left) + 1, y + r - top + 2);
+    }
 
     /**
      * getSize
@@ -0,0 +1,125 @@
+/**
+ * TableGrid.java
+ * Version 1
+ * This class is a uniform grid over the floor plan used to find the table under a point.
+ * Every table is listed in each grid cell its circle overlaps, so a click only has to test
+ * the few tables in one cell instead of every table in the venue.
+ */
+
+//Imports
+import java.util.ArrayList;
+
+class TableGrid {
+
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+
+    //Tables overlapping cell c are cellTables[cellStart[c]] to cellTables[cellStart[c+1]-1]
+    private final int[] cellStart;
+    private final Table[] cellTables;
+
+    /**
+     * TableGrid
+     * This constructor indexes the tables of a floor plan
+     * @param //An arraylist of tables with their positions and radii set, and 2 integers representing
+     * the width and height of the floor plan
+     */
+    TableGrid(ArrayList<Table> tables, int width, int height) {
+
+        //Cells about the size of a table keep every table in a handful of cells, with at most 256 cells a side
+        int maxRadius = 1;
+        for (Table t : tables) {
+            maxRadius = Math.max(maxRadius, t.getRadius());
+        }
+
+        cellSize = Math.max(2 * maxRadius, (Math.max(width, height) + 255) / 256);
+        columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        cellStart = new int[columns * rows + 1];
+
+        //First pass: count the tables in each cell
+        for (Table t : tables) {
+            if (isPlaced(t)) {
+                for (int row = firstRow(t); row <= lastRow(t); row++) {
+                    for (int column = firstColumn(t); column <= lastColumn(t); column++) {
+                        cellStart[row * columns + column + 1]++;
+                    }
+                }
+            }
+        }
+
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        //Second pass: fill the cells
+        cellTables = new Table[cellStart[columns * rows]];
+        int[] fill = new int[columns * rows];
+
+        for (Table t : tables) {
+            if (isPlaced(t)) {
+                for (int row = firstRow(t); row <= lastRow(t); row++) {
+                    for (int column = firstColumn(t); column <= lastColumn(t); column++) {
+                        int c = row * columns + column;
+                        cellTables[cellStart[c] + fill[c]++] = t;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * tableAt
+     * This method finds the table whose circle contains a point
+     * @param //2 integers representing the x and y position of the point
+     * @return The table at the point, or null if there is none
+     */
+    Table tableAt(int x, int y) {
+
+        if (x < 0 || y < 0) {
+            return null;
+        }
+
+        int column = x / cellSize;
+        int row = y / cellSize;
+
+        if (column >= columns || row >= rows) {
+            return null;
+        }
+
+        int c = row * columns + column;
+        for (int i = cellStart[c]; i < cellStart[c + 1]; i++) {
+            Table t = cellTables[i];
+            if (Utility.pointInCircle(t.getX(), t.getY(), t.getRadius(), x, y)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    //Tables are only drawn once they have a position
+    private static boolean isPlaced(Table t) {
+        return t.getX() != 0 && t.getY() != 0;
+    }
+
+    private int firstColumn(Table t) {
+        return clamp((t.getX() - t.getRadius()) / cellSize, columns);
+    }
+
+    private int lastColumn(Table t) {
+        return clamp((t.getX() + t.getRadius()) / cellSize, columns);
+    }
+
+    private int firstRow(Table t) {
+        return clamp((t.getY() - t.getRadius()) / cellSize, rows);
+    }
+
+    private int lastRow(Table t) {
+        return clamp((t.getY() + t.getRadius()) / cellSize, rows);
+    }
+
+    private static int clamp(int cell, int cells) {
+        return Math.max(0, Math.min(cells - 1, cell));
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * TabuSearchStrategy.java
+ * Version 1
+ * This class is a seating engine that always makes the best allowed move in its neighbourhood, even when it lowers
+ * the total happiness, so it can walk out of arrangements where no single swap helps. Every iteration builds a
+ * candidate list from a sample of students: each candidate may swap with anyone at a table where one of their
+ * partners (or choosers) sits, which are the only swaps that can make that candidate happier. A student who was
+ * moved may not go back to the table they left for a number of iterations (the tenure), so the search does not
+ * undo its own moves. A tabu swap is still allowed when it would reach a total happiness better than the best found
+ * so far (aspiration). The tenure grows with the roster, as a larger roster has more moves to cycle through.
+ */
+
+//Imports
+import java.util.SplittableRandom;
+
+class TabuSearchStrategy implements SeatingStrategy {
+
+    //Students sampled into the candidate list of one iteration
+    private static final int CANDIDATES = 16;
+
+    private final int tenure;
+
+    /**
+     * TabuSearchStrategy
+     * This constructor creates an engine whose tenure is scaled to the roster and tables it searches
+     */
+    public TabuSearchStrategy() {
+        this.tenure = -1;
+    }
+
+    /**
+     * TabuSearchStrategy
+     * This constructor creates an engine with a custom tabu tenure
+     * @param //An integer representing the amount of iterations a moved student may not go back to their table
+     */
+    public TabuSearchStrategy(int tenure) {
+        if (tenure < 0) {
+            throw new IllegalArgumentException("Tabu tenure can't be negative");
+        }
+        this.tenure = tenure;
+    }
+
+    /**
+     * tenure
+     * This method gets the tenure for a roster at a number of tables. Moving back is only one of about
+     * numTables moves of a student, and each iteration moves 2 of the students, so the tenure grows with both.
+     * @param //2 integers representing the amount of seated students and the amount of tables
+     * @return An integer representing the iterations a moved student may not go back to their table
+     */
+    int tenure(int students, int numTables) {
+        if (tenure >= 0) {
+            return tenure;
+        }
+        return (int) Math.max(7, Math.min(students / 4, Math.sqrt((double) students * numTables) / 4));
+    }
+
+    @Override
+    public SeatingState search(SeatingState state, long endTime, SplittableRandom random, SearchStats stats) {
+
+        PartnerGraph graph = state.getGraph();
+        int maxTables = state.getNumTables();
+        int[] seated = state.getSeatedStudents();
+
+        if (maxTables <= 1 || seated.length < 2) {
+            return state;
+        }
+
+        int tenure = tenure(seated.length, maxTables);
+        int candidates = Math.min(CANDIDATES, seated.length);
+
+        //Every iteration samples the candidates, so this many iterations look at every student about once
+        stats.setSweepLength(Math.max(1, seated.length / candidates));
+
+        //A student s may not go back to table tabuTable[s] before iteration tabuUntil[s]
+        int[] tabuTable = new int[graph.size()];
+        int[] tabuUntil = new int[graph.size()];
+        int iteration = 0;
+
+        //Tables near the current candidate, and the tables already added to them
+        int[] near = new int[maxTables];
+        int[] visited = new int[maxTables];
+        int stamp = 0;
+
+        //The seats of the best arrangement are only saved when the search is about to leave it
+        int[] best = null;
+        int bestHappiness = state.getTotalHappiness();
+        boolean atBest = true;
+
+        do {
+
+            int bestChange = Integer.MIN_VALUE;
+            int swapStudent1 = -1;
+            int swapStudent2 = -1;
+            int ties = 0;
+            int evaluations = 0;
+
+            for (int c = 0; c < candidates; c++) {
+
+                int student1 = seated[random.nextInt(seated.length)];
+                int table1 = state.getSeat(student1);
+
+                //Only the tables of the candidate's partners and choosers can make the candidate happier
+                stamp++;
+                visited[table1] = stamp;
+                int count = 0;
+                for (int i = graph.partnerStart(student1); i < graph.partnerEnd(student1); i++) {
+                    count = addTable(state.getSeat(graph.partner(i)), near, count, visited, stamp);
+                }
+                for (int i = graph.chooserStart(student1); i < graph.chooserEnd(student1); i++) {
+                    count = addTable(state.getSeat(graph.chooser(i)), near, count, visited, stamp);
+                }
+
+                for (int n = 0; n < count; n++) {
+
+                    int table2 = near[n];
+                    boolean tabu1 = tabuTable[student1] == table2 && tabuUntil[student1] > iteration;
+
+                    for (int b = 0; b < state.getTableCount(table2); b++) {
+
+                        int student2 = state.getStudentAt(table2, b);
+                        int change = state.happinessChange(student1, student2);
+                        evaluations++;
+
+                        boolean tabu = tabu1 || (tabuTable[student2] == table1 && tabuUntil[student2] > iteration);
+                        boolean aspiration = state.getTotalHappiness() + change > bestHappiness;
+
+                        if (change < bestChange || (tabu && !aspiration)) {
+                            continue;
+                        }
+
+                        //Equal moves are picked at random, so the search doesn't keep trying the same one;
+                        //constraints are only checked for a swap that would become the best one
+                        if (change > bestChange) {
+                            if (state.canSwap(student1, student2)) {
+                                bestChange = change;
+                                swapStudent1 = student1;
+                                swapStudent2 = student2;
+                                ties = 1;
+                            }
+                        } else if (random.nextInt(++ties) == 0) {
+                            if (state.canSwap(student1, student2)) {
+                                swapStudent1 = student1;
+                                swapStudent2 = student2;
+                            } else {
+                                ties--;
+                            }
+                        }
+                    }
+                }
+            }
+
+            stats.addEvaluations(evaluations);
+
+            if (swapStudent1 >= 0) {
+
+                if (bestChange < 0 && atBest) {
+                    best = state.saveSeats();
+                    atBest = false;
+                }
+
+                tabuTable[swapStudent1] = state.getSeat(swapStudent1);
+                tabuTable[swapStudent2] = state.getSeat(swapStudent2);
+                tabuUntil[swapStudent1] = iteration + tenure + 1;
+                tabuUntil[swapStudent2] = iteration + tenure + 1;
+
+                state.swap(swapStudent1, swapStudent2);
+                stats.addSwap();
+
+                if (state.getTotalHappiness() > bestHappiness) {
+                    bestHappiness = state.getTotalHappiness();
+                    atBest = true;
+                    stats.improved(state);
+                }
+            }
+
+            iteration++;
+            stats.addIteration();
+
+        } while (System.nanoTime() < endTime && !stats.shouldStop());
+
+        return atBest ? state : state.restore(best);
+    }
+
+    private static int addTable(int table, int[] near, int count, int[] visited, int stamp) {
+        if (table >= 0 && visited[table] != stamp) {
+            visited[table] = stamp;
+            near[count++] = table;
+        }
+        return count;
+    }
+}
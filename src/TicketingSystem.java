@@ -10,6 +10,10 @@ import javax.swing.JTextField;
 import javax.swing.JLabel;
 import javax.swing.GroupLayout;
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.ImageIcon;
 import javax.swing.SwingConstants;
 import javax.swing.BoxLayout;
@@ -21,7 +25,10 @@ import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 public class TicketingSystem extends JPanel implements ActionListener {
@@ -29,13 +36,13 @@ public class TicketingSystem extends JPanel implements ActionListener {
     private Prom parent;
 
     //Max Partners
-    private final int MAX_PARTNERS = 7;
+    static final int MAX_PARTNERS = 7;
 
     //Image
     private final String imagePath = "Richmond_Hill_HS_COA.jpg";
 
     //Master List
-    private ArrayList<Student> students;
+    private StudentRegistry students;
 
     //layout
     private JPanel column,fields,buttonRow,partnerBtnRow;
@@ -46,7 +53,7 @@ public class TicketingSystem extends JPanel implements ActionListener {
     GroupLayout.ParallelGroup pGroupLabel,pGroupField;
 
     //Buttons
-    private JButton submit,clear,cancel,addPartner,removePartner;
+    private JButton submit,clear,cancel,addPartner,removePartner,importCsv;
 
     //Text Fields
     private JTextField firstNameField,lastNameField, restrictionsField, studentNumField;
@@ -59,7 +66,7 @@ public class TicketingSystem extends JPanel implements ActionListener {
     TicketingSystem(Prom parent) {
 
         this.parent = parent;
-        this.students = parent.getStudents();
+        this.students = parent.getRegistry();
 
         //Init Images
         ImageIcon icon = new ImageIcon(imagePath);
@@ -139,6 +146,10 @@ public class TicketingSystem extends JPanel implements ActionListener {
         clear.addActionListener(this);
         buttonRow.add(clear);
 
+        importCsv = new JButton("Import CSV");
+        importCsv.addActionListener(this);
+        buttonRow.add(importCsv);
+
         cancel = new JButton("Exit");
         cancel.addActionListener(this);
         buttonRow.add(cancel);
@@ -254,18 +265,26 @@ public class TicketingSystem extends JPanel implements ActionListener {
      @return Boolean, true if All fields are filled, false if all fields are filled
      */
     private boolean areFieldsFilled() {
-        //Checks if Student fields are empty. Returns false if they are
-        if (firstNameField.getText().equals("")) {
-            return false;
-        } else if (lastNameField.getText().equals("")) {
-            return false;
-        } else if (studentNumField.getText().equals("")) {
-            return false;
+        ArrayList<String> required = new ArrayList<>();
+        required.add(firstNameField.getText());
+        required.add(lastNameField.getText());
+        required.add(studentNumField.getText());
+        for (int i = 0; i < partnerFields.size(); i++) {
+            required.add(partnerFields.get(i).getText());
         }
+        return areFieldsFilled(required);
+    }
 
-        //Checks if partner fields are empty. returns false if they are
-        for (int i = 0; i < partnerFields.size(); i++) {
-            if (partnerFields.get(i).getText().equals("")) {
+    /**
+     areFieldsFilled()
+     This method checks if all required fields of a sign up are filled, shared by the form and the bulk importer
+     @param //ArrayList<String>, the name, student number and partner name fields
+     @return Boolean, true if All fields are filled, false if one is empty
+     */
+    static boolean areFieldsFilled(ArrayList<String> required) {
+        //Returns false if any field is empty
+        for (String field : required) {
+            if (field.equals("")) {
                 return false;
             }
         }
@@ -280,8 +299,18 @@ public class TicketingSystem extends JPanel implements ActionListener {
      @return Boolean, true if text field only contains integers, false if it does not
      */
     private boolean isParseable(JTextField number) {
+        return isParseable(number.getText());
+    }
+
+    /**
+     isParseable()
+     This method checks if a student number contains only integers, shared by the form and the bulk importer
+     @param //String, number to analyze
+     @return Boolean, true if the number only contains integers, false if it does not
+     */
+    static boolean isParseable(String number) {
         try {
-            Integer.parseInt(number.getText().trim());
+            Integer.parseInt(number.trim());
             return true;
         } catch (NumberFormatException e) {
             return false;
@@ -315,49 +344,115 @@ public class TicketingSystem extends JPanel implements ActionListener {
             }
         }
 
-        //Add user and data to Student object and add student to master list
-        Student user = new Student(firstNameField.getText() + " " + lastNameField.getText(), studentNumField.getText(), createPartnersList());
-        user.setPaid(true);
+        //Add user to master list, or find them if they already signed up or were chosen as a partner
+        Student user = new Student(firstNameField.getText() + " " + lastNameField.getText(), studentNumField.getText());
+        boolean added = !students.contains(user);
+        Student saved = students.register(user);
+
+        //Partners point at the registered students, or at placeholders until they sign up
+        saved.setPartners(createPartnersList());
+        saved.setPaid(true);
 
         //Convert String[] of accommodations to ArrayList<String>s
         String[] accomm = restrictionsField.getText().split(", ");
 
-        if (students.contains(user)) {
-            students.get(students.indexOf(user)).setPartners(createPartnersList());
-            if (accomm.length != 0) {
-                System.out.println("Hello?");
-                ArrayList<String> rest = new ArrayList<>();
-                for (String c : accomm) {
-                    System.out.println(c);
-                    rest.add(c);
-                }
-                students.get(students.indexOf(user)).setAccommodations(rest);
-            }
-            students.get(students.indexOf(user)).setPaid(true);
-        } else {
-            students.add(user);
-            if (accomm.length != 0) {
-                System.out.println("Hello?");
-                ArrayList<String> rest = new ArrayList<>();
-                for (String c : accomm) {
-                    System.out.println(c);
-                    rest.add(c);
-                }
-                students.get(students.indexOf(user)).setAccommodations(rest);
+        if (accomm.length != 0) {
+            ArrayList<String> rest = new ArrayList<>();
+            for (String c : accomm) {
+                rest.add(c);
             }
+            saved.setAccommodations(rest);
         }
 
-        //Add partners to students master list declared in Prom class
-        for (int i = 0; i < partnerFields.size(); i++) {
-            Student partner = new Student(partnerFields.get(i).getText(), partnerNums.get(i).getText());
-            if (!students.contains(partner)) {
-                students.add(partner);
-            }
-        }
+        journalSubmission(saved, added);
 
         return true;
     }
 
+    /**
+     journalSubmission()
+     This method records a submission in the registration journal and waits until it is saved to disk
+     @param //Student that was submitted, and whether they were new to the master list
+     */
+    private void journalSubmission(Student saved, boolean added) {
+        RegistrationJournal journal = parent.getJournal();
+        if (journal == null) {
+            return;
+        }
+
+        if (added) {
+            journal.studentAdded(saved);
+        }
+        journal.partnersSet(saved, saved.getPartners());
+        journal.accommodationsSet(saved, saved.getAccommodations());
+        journal.paidSet(saved, saved.hasPaid());
+
+        try {
+            journal.commit();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     importRegistrations()
+     This method asks for a CSV file of sign ups, reads and checks it in the background, and merges each checked batch into the master list
+     */
+    private void importRegistrations() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        importCsv.setEnabled(false);
+        invalid.setForeground(Color.BLACK);
+        invalid.setText("Importing " + chooser.getSelectedFile().getName() + "...");
+        invalid.setVisible(true);
+
+        new SwingWorker<RegistrationImport, Void>() {
+            @Override
+            protected RegistrationImport doInBackground() throws IOException {
+                //Merge every batch on the event thread, so it never overlaps a submission from the form
+                return RegistrationImport.read(chooser.getSelectedFile().toPath(), students, parent.getJournal(), TicketingSystem::onEventThread);
+            }
+
+            @Override
+            protected void done() {
+                importCsv.setEnabled(true);
+                try {
+                    RegistrationImport csv = get();
+                    int added = csv.getAdded();
+
+                    invalid.setForeground(csv.getErrors().isEmpty() ? Color.GREEN.darker() : Color.red);
+                    invalid.setText("Imported " + csv.getRowCount() + " sign ups (" + added + " new students), rejected " + csv.getErrors().size() + " rows.");
+                    if (!csv.getErrors().isEmpty()) {
+                        JOptionPane.showMessageDialog(TicketingSystem.this, String.join("\n", csv.getErrors().subList(0, Math.min(20, csv.getErrors().size())))
+                                + (csv.getErrors().size() > 20 ? "\n..." : ""), "Rejected rows", JOptionPane.WARNING_MESSAGE);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    invalid.setForeground(Color.red);
+                    invalid.setText("Import failed: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     onEventThread()
+     This method runs a task on the event thread and waits for it to finish
+     @param //Runnable, the task
+     */
+    private static void onEventThread(Runnable task) {
+        try {
+            SwingUtilities.invokeAndWait(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
     /**
      createPartnerList()
      This method creates an arrayList of partners
@@ -365,10 +460,9 @@ public class TicketingSystem extends JPanel implements ActionListener {
      */
     ArrayList<Student> createPartnersList() {
         ArrayList<Student> partners = new ArrayList<>();
-        //Create new Student for Each partner and add partner to partners.
+        //Find the one Student object for each partner and add partner to partners.
         for (int i = 0; i < partnerFields.size(); i++) {
-            Student partner = new Student(partnerFields.get(i).getText(), partnerNums.get(i).getText());
-            partners.add(partner);
+            partners.add(students.resolve(partnerFields.get(i).getText(), partnerNums.get(i).getText()));
         }
         return partners;
     }
@@ -409,6 +503,8 @@ public class TicketingSystem extends JPanel implements ActionListener {
                 invalid.setText("Error: One or more fields are not filled");
                 invalid.setVisible(true);
             }
+        } else if (e.getSource() == importCsv) {
+            importRegistrations();
         } else if (e.getSource() == clear) {
             //Clear the panel
             clearPanel();